@@ -0,0 +1,13 @@
+@echo off
+REM Scraping sin interfaz grafica, p. ej. desde el Programador de tareas:
+REM   run-headless.bat "https://www.makinamania.net/index.php/board,52.0.html" --board-pages 1-3 --topic-pages *
+pushd "%~dp0"
+IF NOT EXIST "bin" (
+    ECHO Bin directory is empty or missing. Building...
+    CALL build.bat
+)
+
+java -Djava.awt.headless=true -cp "resources;bin;lib/*" makinamania.HeadlessCrawler %*
+set EXIT_CODE=%ERRORLEVEL%
+popd
+exit /b %EXIT_CODE%
@@ -0,0 +1,9 @@
+#!/bin/bash
+# Scraping sin interfaz gráfica, p. ej. desde cron:
+#   ./run-headless.sh "https://www.makinamania.net/index.php/board,52.0.html" --board-pages 1-3 --topic-pages "*"
+cd "$(dirname "$0")"
+if [ ! -d "bin" ] || [ -z "$(ls -A bin)" ]; then
+    echo "Bin directory is empty or missing. Building..."
+    ./build.sh
+fi
+exec java -Djava.awt.headless=true -cp "resources:bin:lib/*" makinamania.HeadlessCrawler "$@"
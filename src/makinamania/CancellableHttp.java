@@ -0,0 +1,41 @@
+package makinamania;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+// Peticiones HTTP que se abortan en cuanto se cancela el token: se lanzan con sendAsync y al
+// parar se cancela el future, que corta el intercambio en curso en vez de esperar al timeout.
+final class CancellableHttp {
+    private CancellableHttp() {
+    }
+
+    // Lanza InterruptedIOException si se para antes de tener la respuesta.
+    static <T> HttpResponse<T> send(HttpClient client, HttpRequest request, HttpResponse.BodyHandler<T> handler,
+            CancellationToken cancellation) throws IOException {
+        if (cancellation.isCancelled()) {
+            throw new InterruptedIOException("Stop requested");
+        }
+        CompletableFuture<HttpResponse<T>> future = client.sendAsync(request, handler);
+        CancellationToken.Registration abortOnCancel = cancellation.onCancel(() -> future.cancel(true));
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            throw new InterruptedIOException("Stop requested");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+        } finally {
+            abortOnCancel.close();
+        }
+    }
+}
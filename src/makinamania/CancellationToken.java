@@ -0,0 +1,71 @@
+package makinamania;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Señal de parada de un scraping. Cada ScraperSession tiene la suya, así que parar
+// una sesión no afecta a las demás. Quien hace una petición HTTP puede registrar con
+// onCancel() cómo abortarla, para que parar no tenga que esperar a los timeouts.
+public class CancellationToken {
+    // Acción registrada con onCancel(); al cerrarla deja de estar registrada.
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final Set<Runnable> actions = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+    private volatile long cancelledAtNanos;
+
+    public void cancel() {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelledAtNanos = System.nanoTime();
+            cancelled = true;
+            notifyAll();
+        }
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                ConsoleLogger.warn("Error aborting request on stop: " + e.getMessage());
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // System.nanoTime() del momento en que se pidió parar, para medir cuánto tarda en quedar todo quieto.
+    public long getCancelledAtNanos() {
+        return cancelledAtNanos;
+    }
+
+    // Ejecuta action al cancelar, o en el acto si ya estaba cancelado.
+    public Registration onCancel(Runnable action) {
+        actions.add(action);
+        if (cancelled && actions.remove(action)) {
+            action.run();
+        }
+        return () -> actions.remove(action);
+    }
+
+    // Espera millis o hasta que se cancele; devuelve false si se canceló.
+    public synchronized boolean sleep(long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        long remaining = millis;
+        while (!cancelled && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return !cancelled;
+    }
+
+    // Permite reutilizar el token para un nuevo scraping.
+    public void reset() {
+        cancelled = false;
+    }
+}
@@ -5,11 +5,11 @@ package makinamania;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
-import java.net.URL;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -19,38 +19,103 @@ public class Checker {
             .connectTimeout(Duration.ofSeconds(10))
             .build();
 
+    // Para las comprobaciones HEAD: sigue redirecciones como hacía HttpURLConnection.
+    private static final HttpClient headClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    // Token que nunca se cancela, para las llamadas sin sesión.
+    private static final CancellationToken NEVER = new CancellationToken();
+
+    private static final CrawlMetrics METRICS = CrawlMetrics.global();
+
     private static final Pattern MEGA_REGEX = Pattern.compile("https://mega\\.nz/(file|folder)/([\\w-]+)#([\\w-]+)");
+    private static final Pattern MEGA_ERROR = Pattern.compile("\\[?(-\\d+)\\]?");
+    private static final Set<String> MEGA_TRANSIENT_ERRORS = Set.of("-3", "-4", "-6");
+
+    // Resultado de comprobar un enlace; UNKNOWN cuando no se ha podido saber.
+    public enum LinkStatus {
+        ALIVE, DEAD, UNKNOWN
+    }
 
     public static boolean checkLink(String url, String hoster) {
+        return checkLink(url, hoster, METRICS);
+    }
+
+    // Igual que checkLink, registrando la comprobación en las métricas indicadas.
+    public static boolean checkLink(String url, String hoster, CrawlMetrics metrics) {
+        return checkLink(url, hoster, metrics, NEVER);
+    }
+
+    // Igual, abortando la petición en curso si se cancela el token; un enlace cortado por la
+    // parada no cuenta ni como vivo ni como muerto.
+    public static boolean checkLink(String url, String hoster, CrawlMetrics metrics, CancellationToken cancellation) {
+        return checkLinkStatus(url, hoster, metrics, cancellation) == LinkStatus.ALIVE;
+    }
+
+    // Como checkLink, distinguiendo un enlace muerto de uno que no se ha podido comprobar (error de
+    // red, timeout, 429/5xx, parada): UNKNOWN no dice nada del enlace y conviene reintentarlo más tarde.
+    public static LinkStatus checkLinkStatus(String url, String hoster, CrawlMetrics metrics,
+            CancellationToken cancellation) {
         if (url == null || url.trim().isEmpty()) {
-            return false;
+            return LinkStatus.DEAD;
         }
 
+        String key = hoster != null ? hoster.toLowerCase() : "unknown";
+        CrawlEvents.Check event = new CrawlEvents.Check();
+        event.begin();
+        event.url = url;
+        event.hoster = key;
+        try (CrawlMetrics.Sample sample = metrics.start(CrawlMetrics.CHECK_PREFIX + key)) {
+            LinkStatus status = checkLinkByHoster(url, key, cancellation);
+            if (cancellation.isCancelled()) {
+                event.outcome = "stopped";
+                return LinkStatus.UNKNOWN;
+            }
+            metrics.increment(CrawlMetrics.CHECK_PREFIX + key + "." + status.name().toLowerCase());
+            // Un enlace muerto es una comprobación que ha ido bien; solo cuentan como error las
+            // que no han podido terminar (excepciones, timeouts, 429/5xx).
+            if (status != LinkStatus.UNKNOWN) {
+                sample.success();
+            }
+            event.outcome = status.name().toLowerCase();
+            return status;
+        } finally {
+            event.commit();
+        }
+    }
+
+    private static LinkStatus checkLinkByHoster(String url, String hoster, CancellationToken cancellation) {
         try {
-            switch (hoster.toLowerCase()) {
+            switch (hoster) {
                 case "swisstransfer", "drive", "dropbox", "wetransfer", "unknown":
-                    return true;
+                    return LinkStatus.ALIVE;
                 case "terabox":
-                    return checkTeraBoxLink(url);
+                    return headStatus(url, cancellation, HttpURLConnection.HTTP_OK, HttpURLConnection.HTTP_MOVED_TEMP);
                 case "mediafire":
-                    return checkMediafireLink(url);
+                    return headStatus(url, cancellation, HttpURLConnection.HTTP_OK);
                 case "rapidgator":
-                    return checkRapidgatorLink(url);
+                    return headStatus(url, cancellation, HttpURLConnection.HTTP_OK, HttpURLConnection.HTTP_MOVED_TEMP);
                 case "mega.nz":
-                    return checkMegaLink(url);
+                    return megaStatus(url, cancellation);
                 default:
-                    return true;
+                    return LinkStatus.ALIVE;
             }
         } catch (Exception e) {
-            return false;
+            return LinkStatus.UNKNOWN;
         }
     }
 
     public static boolean checkMegaLink(String url) {
+        return megaStatus(url, NEVER) == LinkStatus.ALIVE;
+    }
+
+    private static LinkStatus megaStatus(String url, CancellationToken cancellation) {
         Matcher matcher = MEGA_REGEX.matcher(url);
         if (!matcher.matches()) {
-            System.out.println("enlace falso: " + url);
-            return false;
+            ConsoleLogger.debug("enlace falso: " + url);
+            return LinkStatus.DEAD;
         }
 
         String type = matcher.group(1);
@@ -76,61 +141,78 @@ public class Checker {
                     .POST(HttpRequest.BodyPublishers.ofString(payload))
                     .build();
 
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = CancellableHttp.send(client, request, HttpResponse.BodyHandlers.ofString(),
+                    cancellation);
+            if (isTransient(response.statusCode())) {
+                return LinkStatus.UNKNOWN;
+            }
             String body = response.body().trim();
+            Matcher error = MEGA_ERROR.matcher(body);
 
-            if (body.startsWith("[-")) {
-                System.out.println("enlace falso: " + url);
-                return false;
-            } else if (body.startsWith("[{")) {
-                return true;
+            if (body.startsWith("[{")) {
+                return LinkStatus.ALIVE;
+            } else if (error.matches() && MEGA_TRANSIENT_ERRORS.contains(error.group(1))) {
+                // EAGAIN / ERATELIMIT / ETOOMANY: Mega está ocupado, no es que el enlace no exista.
+                return LinkStatus.UNKNOWN;
             } else {
-                System.out.println("enlace falso: " + url);
-                return false;
+                ConsoleLogger.debug("enlace falso: " + url);
+                return LinkStatus.DEAD;
             }
 
         } catch (Exception e) {
-            e.printStackTrace();
-            return false;
+            if (!cancellation.isCancelled()) {
+                ConsoleLogger.error("Error checking mega link: " + url, e);
+            }
+            return LinkStatus.UNKNOWN;
         }
     }
 
     public static boolean checkTeraBoxLink(String url) {
-        return checkHeadRequest(url, HttpURLConnection.HTTP_OK, HttpURLConnection.HTTP_MOVED_TEMP);
+        return headStatus(url, NEVER, HttpURLConnection.HTTP_OK, HttpURLConnection.HTTP_MOVED_TEMP) == LinkStatus.ALIVE;
     }
 
     public static boolean checkMediafireLink(String url) {
-        return checkHeadRequest(url, HttpURLConnection.HTTP_OK);
+        return headStatus(url, NEVER, HttpURLConnection.HTTP_OK) == LinkStatus.ALIVE;
     }
 
     public static boolean checkRapidgatorLink(String url) {
-        return checkHeadRequest(url, HttpURLConnection.HTTP_OK, HttpURLConnection.HTTP_MOVED_TEMP);
+        return headStatus(url, NEVER, HttpURLConnection.HTTP_OK, HttpURLConnection.HTTP_MOVED_TEMP) == LinkStatus.ALIVE;
     }
 
     public static boolean checkGenericLink(String url) {
-        return checkHeadRequest(url, HttpURLConnection.HTTP_OK, HttpURLConnection.HTTP_MOVED_TEMP);
+        return headStatus(url, NEVER, HttpURLConnection.HTTP_OK, HttpURLConnection.HTTP_MOVED_TEMP) == LinkStatus.ALIVE;
     }
 
-    private static boolean checkHeadRequest(String urlString, int... validCodes) {
+    private static LinkStatus headStatus(String urlString, CancellationToken cancellation, int... validCodes) {
+        HttpRequest request;
         try {
-            URL url = URI.create(urlString).toURL();
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("HEAD");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
-            connection.setRequestProperty("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36");
-            connection.setRequestProperty("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8");
-
-            int responseCode = connection.getResponseCode();
-            for (int code : validCodes) {
-                if (responseCode == code) {
-                    return true;
-                }
-            }
-            return false;
+            request = HttpRequest.newBuilder(URI.create(urlString))
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .timeout(Duration.ofSeconds(5))
+                    .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
+                    .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return LinkStatus.DEAD;
+        }
+
+        int responseCode;
+        try {
+            responseCode = CancellableHttp.send(headClient, request, HttpResponse.BodyHandlers.discarding(),
+                    cancellation).statusCode();
         } catch (IOException e) {
-            return false;
+            return LinkStatus.UNKNOWN;
+        }
+        for (int code : validCodes) {
+            if (responseCode == code) {
+                return LinkStatus.ALIVE;
+            }
         }
+        return isTransient(responseCode) ? LinkStatus.UNKNOWN : LinkStatus.DEAD;
     }
-}
 
+    // 429 y 5xx: el servidor no ha contestado sobre el enlace, solo que ahora no puede.
+    private static boolean isTransient(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+}
@@ -1,71 +1,402 @@
 package makinamania;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+// Logger asíncrono: los hilos solo encolan el mensaje; un único hilo escritor le da formato,
+// lo escribe en consola y en el fichero (si está activado) y avisa a los listeners.
 public class ConsoleLogger {
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    // Qué hacer cuando la cola está llena.
+    public enum OverflowPolicy {
+        DROP_NEWEST, DROP_OLDEST, BLOCK
+    }
+
+    public static final long DEFAULT_FILE_MAX_BYTES = 10L * 1024 * 1024;
+    public static final int DEFAULT_FILE_COUNT = 5;
+
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final Queue<LogRecord> queue = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger queued = new AtomicInteger();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong enqueuedTotal = new AtomicLong();
+    private static final AtomicLong writtenTotal = new AtomicLong();
+    private static final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    private static volatile Level threshold = parseLevel(System.getProperty("makinamania.log.level"), Level.INFO);
+    private static volatile OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private static volatile int capacity = Integer.getInteger("makinamania.log.capacity", 10_000);
+    private static volatile RollingFileSink fileSink;
+
+    private static final PrintStream out = System.out;
+    private static final Thread writer = startWriter();
+
+    // -Dmakinamania.log.file=PATH activa el fichero desde el arranque, en cualquier punto de entrada;
+    // makinamania.log.maxBytes y makinamania.log.maxFiles ajustan la rotación.
+    static {
+        String path = System.getProperty("makinamania.log.file");
+        if (path != null && !path.isBlank()) {
+            try {
+                enableFileSink(path, Long.getLong("makinamania.log.maxBytes", DEFAULT_FILE_MAX_BYTES),
+                        Integer.getInteger("makinamania.log.maxFiles", DEFAULT_FILE_COUNT));
+            } catch (IOException e) {
+                out.println("Could not open log file " + path + ": " + e.getMessage());
+            }
+        }
+    }
 
     public static void info(String message) {
-        log("INFO", "ℹ️", message);
+        log(Level.INFO, "INFO", "ℹ️", message);
     }
 
     public static void success(String message) {
-        log("SUCCESS", "✅", message);
+        log(Level.INFO, "SUCCESS", "✅", message);
     }
 
     public static void warn(String message) {
-        log("WARN", "⚠️", message);
+        log(Level.WARN, "WARN", "⚠️", message);
     }
 
     public static void error(String message) {
-        log("ERROR", "❌", message);
+        log(Level.ERROR, "ERROR", "❌", message);
+    }
+
+    public static void error(String message, Throwable error) {
+        if (isEnabled(Level.ERROR)) {
+            enqueue(new LogRecord(Level.ERROR, "ERROR", "❌", message, error));
+        }
     }
 
     public static void start(String message) {
-        log("START", "🚀", message);
+        log(Level.INFO, "START", "🚀", message);
     }
 
     public static void stop(String message) {
-        log("STOP", "🛑", message);
+        log(Level.INFO, "STOP", "🛑", message);
     }
 
     public static void debug(String message) {
-        System.out.println(format("DEBUG", "🐛", message));
+        log(Level.DEBUG, "DEBUG", "🐛", message);
     }
 
-    private static final java.util.List<java.util.function.Consumer<String>> listeners = new java.util.concurrent.CopyOnWriteArrayList<>();
+    // El mensaje solo se construye si el nivel DEBUG está activo, y ya en el hilo escritor.
+    public static void debug(Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) {
+            enqueue(new LogRecord(Level.DEBUG, "DEBUG", "🐛", message, null));
+        }
+    }
 
-    public static void addLogListener(java.util.function.Consumer<String> listener) {
+    public static void addLogListener(Consumer<String> listener) {
         listeners.add(listener);
     }
 
     public static void logging(String message) {
-        System.out.println(message);
-        notifyListeners(message);
+        if (isEnabled(Level.INFO)) {
+            enqueue(new LogRecord(Level.INFO, null, null, message, null));
+        }
     }
 
-    private static void log(String level, String emoji, String message) {
-        String formatted = format(level, emoji, message);
-        System.out.println(formatted);
-        notifyListeners(formatted);
+    public static void scraping(String current, String total, String url) {
+        if (isEnabled(Level.INFO)) {
+            enqueue(new LogRecord(Level.INFO, "SCRAPING", "🔍",
+                    (Supplier<String>) () -> "Processing [" + current + "/" + total + "]: " + url, null));
+        }
     }
 
-    public static void scraping(String current, String total, String url) {
-        String formatted = String.format("[%s] [SCRAPING] 🔍 Processing [%s/%s]: %s",
-                LocalTime.now().format(TIME_FORMATTER), current, total, url);
-        System.out.println(formatted);
-        notifyListeners(formatted);
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold.ordinal() && threshold != Level.OFF;
+    }
+
+    public static Level getLevel() {
+        return threshold;
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    public static void setOverflowPolicy(OverflowPolicy policy) {
+        overflowPolicy = policy;
+    }
+
+    public static void setCapacity(int newCapacity) {
+        capacity = Math.max(1, newCapacity);
+    }
+
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // Activa la copia a fichero, rotando a path.1, path.2... al superar maxBytes. También se puede
+    // activar con la propiedad makinamania.log.file o, en HeadlessCrawler, con --log-file.
+    public static void enableFileSink(String path, long maxBytes, int maxFiles) throws IOException {
+        RollingFileSink previous = fileSink;
+        fileSink = new RollingFileSink(new File(path), maxBytes, maxFiles);
+        if (previous != null) {
+            previous.closeQuietly();
+        }
+    }
+
+    public static void disableFileSink() {
+        RollingFileSink previous = fileSink;
+        fileSink = null;
+        if (previous != null) {
+            previous.closeQuietly();
+        }
+    }
+
+    // Espera a que el escritor haya vaciado la cola (o a que venza el plazo).
+    public static void flush(long timeoutMs) {
+        long target = enqueuedTotal.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (writtenTotal.get() + dropped.get() < target && System.nanoTime() < deadline
+                && Thread.currentThread() != writer) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private static void log(Level level, String tag, String emoji, String message) {
+        if (isEnabled(level)) {
+            enqueue(new LogRecord(level, tag, emoji, message, null));
+        }
+    }
+
+    private static void enqueue(LogRecord record) {
+        enqueuedTotal.incrementAndGet();
+        if (queued.get() >= capacity) {
+            switch (overflowPolicy) {
+                case DROP_NEWEST:
+                    dropped.incrementAndGet();
+                    return;
+                case DROP_OLDEST:
+                    if (queue.poll() != null) {
+                        queued.decrementAndGet();
+                        dropped.incrementAndGet();
+                    }
+                    break;
+                case BLOCK:
+                    while (queued.get() >= capacity && Thread.currentThread() != writer) {
+                        LockSupport.unpark(writer);
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+                    }
+                    break;
+            }
+        }
+        queue.add(record);
+        if (queued.getAndIncrement() == 0) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private static Thread startWriter() {
+        Thread thread = new Thread(ConsoleLogger::writeLoop, "console-logger");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(2000), "console-logger-flush"));
+        return thread;
+    }
+
+    private static void writeLoop() {
+        StringBuilder batch = new StringBuilder();
+        int batchRecords = 0;
+        long reportedDrops = 0;
+        long lastSecond = -1;
+        String timestamp = "";
+
+        while (true) {
+            LogRecord record = queue.poll();
+            if (record == null) {
+                if (batch.length() > 0) {
+                    writeBatch(batch);
+                }
+                writtenTotal.addAndGet(batchRecords);
+                batchRecords = 0;
+                long drops = dropped.get();
+                if (drops > reportedDrops) {
+                    String line = "[" + LocalTime.now().format(TIME_FORMATTER) + "] [WARN] ⚠️ Dropped "
+                            + (drops - reportedDrops) + " log messages (queue full)";
+                    reportedDrops = drops;
+                    batch.append(line).append(System.lineSeparator());
+                    writeBatch(batch);
+                    notifyListeners(line);
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            queued.decrementAndGet();
+
+            long second = record.timeMillis / 1000;
+            if (second != lastSecond) {
+                lastSecond = second;
+                timestamp = LocalTime.ofInstant(Instant.ofEpochMilli(record.timeMillis), ZoneId.systemDefault())
+                        .format(TIME_FORMATTER);
+            }
+
+            String line;
+            try {
+                line = record.format(timestamp);
+            } catch (RuntimeException e) {
+                line = "[" + timestamp + "] [ERROR] ❌ Failed to format log message: " + e;
+            }
+            batch.append(line).append(System.lineSeparator());
+            if (record.error != null) {
+                StringWriter trace = new StringWriter();
+                record.error.printStackTrace(new PrintWriter(trace));
+                batch.append(trace);
+            }
+            notifyListeners(record.error != null ? line + " - " + record.error : line);
+            batchRecords++;
+
+            if (batch.length() > 64 * 1024) {
+                writeBatch(batch);
+                writtenTotal.addAndGet(batchRecords);
+                batchRecords = 0;
+            }
+        }
+    }
+
+    private static void writeBatch(StringBuilder batch) {
+        String text = batch.toString();
+        batch.setLength(0);
+        out.print(text);
+        out.flush();
+
+        RollingFileSink sink = fileSink;
+        if (sink != null) {
+            sink.write(text);
+        }
     }
 
     private static void notifyListeners(String message) {
-        for (java.util.function.Consumer<String> listener : listeners) {
-            listener.accept(message);
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(message);
+            } catch (RuntimeException e) {
+                out.println("Log listener failed: " + e);
+            }
         }
     }
 
-    private static String format(String level, String emoji, String message) {
-        return String.format("[%s] [%s] %s %s",
-                LocalTime.now().format(TIME_FORMATTER), level, emoji, message);
+    private static Level parseLevel(String value, Level fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    // Mensaje pendiente; el texto puede ser un Supplier que solo se evalúa al escribirlo.
+    private static final class LogRecord {
+        final long timeMillis = System.currentTimeMillis();
+        final Level level;
+        final String tag;
+        final String emoji;
+        final Object message;
+        final Throwable error;
+
+        LogRecord(Level level, String tag, String emoji, Object message, Throwable error) {
+            this.level = level;
+            this.tag = tag;
+            this.emoji = emoji;
+            this.message = message;
+            this.error = error;
+        }
+
+        String format(String timestamp) {
+            String text = message instanceof Supplier ? String.valueOf(((Supplier<?>) message).get())
+                    : String.valueOf(message);
+            if (tag == null) {
+                return text;
+            }
+            return "[" + timestamp + "] [" + tag + "] " + emoji + " " + text;
+        }
+    }
+
+    // Fichero de log con rotación por tamaño; solo lo usa el hilo escritor.
+    private static final class RollingFileSink {
+        private final File file;
+        private final long maxBytes;
+        private final int maxFiles;
+        private OutputStream stream;
+        private long written;
+
+        RollingFileSink(File file, long maxBytes, int maxFiles) throws IOException {
+            this.file = file;
+            this.maxBytes = Math.max(1024, maxBytes);
+            this.maxFiles = Math.max(1, maxFiles);
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) {
+                parent.mkdirs();
+            }
+            open();
+        }
+
+        synchronized void write(String text) {
+            try {
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                if (written + bytes.length > maxBytes && written > 0) {
+                    roll();
+                }
+                stream.write(bytes);
+                stream.flush();
+                written += bytes.length;
+            } catch (IOException e) {
+                out.println("Log file write failed: " + e.getMessage());
+            }
+        }
+
+        private void roll() throws IOException {
+            stream.close();
+            new File(file.getPath() + "." + maxFiles).delete();
+            for (int i = maxFiles - 1; i >= 1; i--) {
+                File older = new File(file.getPath() + "." + i);
+                if (older.exists()) {
+                    older.renameTo(new File(file.getPath() + "." + (i + 1)));
+                }
+            }
+            file.renameTo(new File(file.getPath() + ".1"));
+            open();
+        }
+
+        private void open() throws IOException {
+            stream = new FileOutputStream(file, true);
+            written = file.length();
+        }
+
+        synchronized void closeQuietly() {
+            try {
+                stream.close();
+            } catch (IOException ignored) {
+            }
+        }
     }
 }
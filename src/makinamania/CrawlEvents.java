@@ -0,0 +1,108 @@
+package makinamania;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Eventos de Java Flight Recorder del scraping. Si no hay ninguna grabación activa,
+// begin()/commit() no hacen nada, así que se pueden emitir siempre.
+public final class CrawlEvents {
+    public static final String OK = "ok";
+    public static final String ERROR = "error";
+
+    private CrawlEvents() {
+    }
+
+    @Name("makinamania.Fetch")
+    @Label("Page Fetch")
+    @Category({ "Makinamania", "Crawl" })
+    @Description("Download and parse of a forum page")
+    public static class Fetch extends Event {
+        @Label("URL")
+        public String url;
+
+        @Label("Status")
+        public int status;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("Outcome")
+        public String outcome = ERROR;
+    }
+
+    @Name("makinamania.Parse")
+    @Label("Post Parse")
+    @Category({ "Makinamania", "Crawl" })
+    @Description("HTML extraction of a single post")
+    public static class Parse extends Event {
+        @Label("Post URL")
+        public String url;
+
+        @Label("Hoster")
+        public String hoster;
+
+        @Label("Download Links")
+        public int links;
+
+        @Label("Outcome")
+        public String outcome = ERROR;
+    }
+
+    @Name("makinamania.Check")
+    @Label("Link Check")
+    @Category({ "Makinamania", "Crawl" })
+    @Description("Liveness check of a download link")
+    public static class Check extends Event {
+        @Label("URL")
+        public String url;
+
+        @Label("Hoster")
+        public String hoster;
+
+        @Label("Outcome")
+        public String outcome = ERROR;
+    }
+
+    @Name("makinamania.Discogs")
+    @Label("Discogs Lookup")
+    @Category({ "Makinamania", "Crawl" })
+    @Description("Album title lookup for a Discogs link")
+    public static class Discogs extends Event {
+        @Label("URL")
+        public String url;
+
+        @Label("Source")
+        @Description("cache, url or web")
+        public String source;
+
+        @Label("Outcome")
+        public String outcome = ERROR;
+    }
+
+    @Name("makinamania.Persist")
+    @Label("JSON Persist")
+    @Category({ "Makinamania", "Storage" })
+    @Description("Load or save of a JSON file")
+    public static class Persist extends Event {
+        @Label("File")
+        public String file;
+
+        @Label("Operation")
+        public String operation;
+
+        @Label("Items")
+        public int items;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+
+        @Label("Outcome")
+        public String outcome = ERROR;
+    }
+}
@@ -0,0 +1,255 @@
+package makinamania;
+
+import org.jsoup.nodes.Document;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Frontera de un crawl guardada en disco (resources/frontier/<id>.json): las páginas descubiertas con
+// su estado y el cursor del descubrimiento (páginas de board y topics raíz ya recorridos).
+// Los topics de un board se expanden en orden de valor (TopicScorer), no en el del listado, y los
+// que no pasan el TopicFilter se descartan sin pedir ninguna de sus páginas.
+// Si el crawl se corta, al relanzarlo con la misma URL y patrones sigue donde lo dejó sin repetir
+// peticiones ya hechas. Una página hecha solo se guarda como DONE tras checkpoint(), cuando sus
+// posts ya están en disco; hasta entonces figura como PENDING.
+public class CrawlFrontier {
+    public enum PageState {
+        PENDING, IN_FLIGHT, DONE, FAILED
+    }
+
+    private static final String FRONTIER_DIRECTORY = "resources/frontier";
+    private static final long SAVE_INTERVAL_MS = 2000;
+
+    // Contenido del fichero.
+    static class Snapshot {
+        public String url;
+        public String boardPages;
+        public String topicPages;
+        public String titleFilter;
+        public int filteredTopics;
+        public List<Integer> boardPageNumbers;
+        public int boardPageCursor;
+        public List<String> topicRoots = new ArrayList<>();
+        public Map<String, Double> topicScores = new HashMap<>();
+        public Map<String, Integer> topicPageCounts = new HashMap<>();
+        public int topicRootCursor;
+        public boolean discoveryComplete;
+        public Map<String, PageState> pages = new LinkedHashMap<>();
+    }
+
+    private final File file;
+    private final Snapshot state;
+    private final TopicFilter filter;
+    private final boolean resumed;
+    private final Set<String> uncommitted = new HashSet<>();
+    private long lastSave;
+
+    private CrawlFrontier(File file, Snapshot state, TopicFilter filter, boolean resumed) {
+        this.file = file;
+        this.state = state;
+        this.filter = filter;
+        this.resumed = resumed;
+    }
+
+    // Abre la frontera de esta URL y patrones, o crea una vacía. Las páginas que estaban en curso
+    // cuando se cortó el crawl vuelven a quedar pendientes; las fallidas siguen como FAILED.
+    public static CrawlFrontier open(String url, String boardPages, String topicPages) {
+        return open(url, boardPages, topicPages, TopicFilter.NONE);
+    }
+
+    // Igual, con un filtro de títulos; fronteras con filtros distintos son independientes.
+    public static CrawlFrontier open(String url, String boardPages, String topicPages, TopicFilter filter) {
+        boolean board = MakinamaniaScraper.isBoardUrl(url);
+        if (!board) {
+            filter = TopicFilter.NONE;
+        }
+        String key = url + "|" + (board ? boardPages : "") + "|" + topicPages
+                + (filter.isEmpty() ? "" : "|" + filter);
+        String id = UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+        File file = new File(FRONTIER_DIRECTORY, id + ".json");
+
+        Snapshot state = JsonUtils.loadFrontier(file);
+        boolean resumed = state != null;
+        if (state == null) {
+            state = new Snapshot();
+            state.url = url;
+            state.boardPages = board ? boardPages : null;
+            state.topicPages = topicPages;
+            state.titleFilter = filter.isEmpty() ? null : filter.toString();
+        } else {
+            state.pages.replaceAll((page, pageState) -> pageState == PageState.IN_FLIGHT ? PageState.PENDING : pageState);
+        }
+        return new CrawlFrontier(file, state, filter, resumed);
+    }
+
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    // Indica si la frontera guardada de esta URL y patrones tiene páginas FAILED de algún crawl anterior.
+    public static boolean hasFailedPages(String url, String boardPages, String topicPages, TopicFilter filter) {
+        CrawlFrontier frontier = open(url, boardPages, topicPages, filter);
+        return frontier.isResumed() && !frontier.getPages(PageState.FAILED).isEmpty();
+    }
+
+    // Completa el descubrimiento de páginas desde el cursor, guardando tras cada petición.
+    // Devuelve false si se paró antes de terminar (el cursor queda guardado para la próxima vez).
+    public boolean discover(ScraperSession session) throws IOException {
+        synchronized (this) {
+            if (state.discoveryComplete) {
+                return true;
+            }
+        }
+
+        if (MakinamaniaScraper.isBoardUrl(state.url)) {
+            Document probe = null;
+            if (state.boardPageNumbers == null) {
+                probe = session.fetchBoardProbe(state.url);
+                List<Integer> pageNumbers = session.resolveBoardPages(probe, state.boardPages);
+                synchronized (this) {
+                    state.boardPageNumbers = pageNumbers;
+                    save();
+                }
+            }
+            List<Integer> remaining = new ArrayList<>(
+                    state.boardPageNumbers.subList(state.boardPageCursor, state.boardPageNumbers.size()));
+            session.forEachBoardPage(state.url, remaining, probe, (page, topics) -> {
+                synchronized (this) {
+                    for (MakinamaniaScraper.TopicInfo topic : topics) {
+                        if (!filter.accepts(topic.title)) {
+                            state.filteredTopics++;
+                        } else if (!state.topicScores.containsKey(topic.url)) {
+                            state.topicRoots.add(topic.url);
+                            state.topicScores.put(topic.url, TopicScorer.score(topic));
+                            if (topic.pages > 0) {
+                                state.topicPageCounts.put(topic.url, topic.pages);
+                            }
+                        }
+                    }
+                    state.boardPageCursor++;
+                    save();
+                }
+            });
+            if (state.boardPageCursor < state.boardPageNumbers.size()) {
+                return false;
+            }
+            // Con todo el listado leído, los topics de más valor se expanden y scrapean primero.
+            if (state.topicRootCursor == 0) {
+                synchronized (this) {
+                    state.topicRoots.sort(Comparator.comparingDouble(
+                            (String topic) -> state.topicScores.getOrDefault(topic, 0.0)).reversed());
+                }
+            }
+        } else if (state.topicRoots.isEmpty()) {
+            state.topicRoots.add(state.url);
+        }
+
+        while (state.topicRootCursor < state.topicRoots.size()) {
+            if (session.stopRequested()) {
+                return false;
+            }
+            // Si el listado ya dio el número de páginas no hay petición que guardar a cada paso.
+            String root = state.topicRoots.get(state.topicRootCursor);
+            int knownPages = state.topicPageCounts.getOrDefault(root, -1);
+            List<String> pageUrls = session.generateTopicPageUrls(root, state.topicPages, knownPages);
+            synchronized (this) {
+                for (String pageUrl : pageUrls) {
+                    state.pages.putIfAbsent(pageUrl, PageState.PENDING);
+                }
+                state.topicRootCursor++;
+                if (knownPages > 0) {
+                    saveIfDue();
+                } else {
+                    save();
+                }
+            }
+        }
+
+        synchronized (this) {
+            state.discoveryComplete = true;
+            save();
+        }
+        return true;
+    }
+
+    public synchronized List<String> getPages(PageState pageState) {
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, PageState> entry : state.pages.entrySet()) {
+            if (entry.getValue() == pageState) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    // Topics del listado descartados por el filtro de títulos.
+    public synchronized int getFilteredTopics() {
+        return state.filteredTopics;
+    }
+
+    public synchronized int size() {
+        return state.pages.size();
+    }
+
+    // Cambia el estado de una página; una página DONE queda pendiente de checkpoint().
+    public synchronized void mark(String page, PageState pageState) {
+        state.pages.put(page, pageState);
+        if (pageState == PageState.DONE) {
+            uncommitted.add(page);
+        } else {
+            uncommitted.remove(page);
+        }
+        saveIfDue();
+    }
+
+    // Los posts de las páginas hechas ya están guardados: se dan por terminadas en disco.
+    // Si no queda nada pendiente ni fallido, la frontera se borra.
+    public synchronized void checkpoint() {
+        uncommitted.clear();
+        if (state.discoveryComplete && !state.pages.containsValue(PageState.PENDING)
+                && !state.pages.containsValue(PageState.IN_FLIGHT)
+                && !state.pages.containsValue(PageState.FAILED)) {
+            JsonUtils.deleteFrontier(file);
+        } else {
+            save();
+        }
+    }
+
+    private void saveIfDue() {
+        if (System.currentTimeMillis() - lastSave >= SAVE_INTERVAL_MS) {
+            save();
+        }
+    }
+
+    // Escribe la frontera; las páginas hechas sin checkpoint se guardan como pendientes.
+    private void save() {
+        Snapshot copy = new Snapshot();
+        copy.url = state.url;
+        copy.boardPages = state.boardPages;
+        copy.topicPages = state.topicPages;
+        copy.titleFilter = state.titleFilter;
+        copy.filteredTopics = state.filteredTopics;
+        copy.boardPageNumbers = state.boardPageNumbers;
+        copy.boardPageCursor = state.boardPageCursor;
+        copy.topicRoots = new ArrayList<>(state.topicRoots);
+        copy.topicScores = new HashMap<>(state.topicScores);
+        copy.topicPageCounts = new HashMap<>(state.topicPageCounts);
+        copy.topicRootCursor = state.topicRootCursor;
+        copy.discoveryComplete = state.discoveryComplete;
+        for (Map.Entry<String, PageState> entry : state.pages.entrySet()) {
+            copy.pages.put(entry.getKey(), uncommitted.contains(entry.getKey()) ? PageState.PENDING : entry.getValue());
+        }
+        JsonUtils.saveFrontier(copy, file);
+        lastSave = System.currentTimeMillis();
+    }
+}
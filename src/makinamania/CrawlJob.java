@@ -0,0 +1,145 @@
+package makinamania;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Trabajo de la cola de scraping: un board o topic con sus patrones de páginas.
+// Tiene su propia ScraperSession (caché, token de parada y métricas hijas de las globales);
+// el estado de planificación lo gestiona CrawlScheduler bajo su propio cerrojo.
+public class CrawlJob {
+    public enum State {
+        QUEUED, RESOLVING, RUNNING, PAUSED, COMPLETED, FAILED, CANCELLED
+    }
+
+    public static final int MIN_PRIORITY = 1;
+    public static final int MAX_PRIORITY = 10;
+    public static final int DEFAULT_PRIORITY = 5;
+
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(1);
+
+    private final int id = NEXT_ID.getAndIncrement();
+    private final String url;
+    private final String boardPages;
+    private final String topicPages;
+    private final TopicFilter topicFilter;
+    private final ScraperSession session = new ScraperSession(new CrawlMetrics(CrawlMetrics.global()));
+    private final List<Post> posts = Collections.synchronizedList(new ArrayList<>());
+
+    // Estado protegido por el cerrojo del CrawlScheduler.
+    final Deque<String> pendingPages = new ArrayDeque<>();
+    final Map<String, Integer> failedAttempts = new HashMap<>();
+    // Páginas terminadas de este trabajo; van a scanned.json junto con sus posts al acabar.
+    final List<String> scannedPages = new ArrayList<>();
+    volatile State state = State.QUEUED;
+    volatile boolean paused;
+    volatile int priority;
+    volatile int totalPages;
+    volatile int skippedPages;
+    volatile int processedPages;
+    volatile int failedPages;
+    volatile int recoveredPages;
+    volatile String error;
+    boolean cancelRequested;
+    int inFlight;
+    int retryWaiting;
+    long pass;
+    CrawlReport report;
+
+    public CrawlJob(String url, String boardPages, String topicPages, int priority) {
+        this(url, boardPages, topicPages, TopicFilter.NONE, priority);
+    }
+
+    public CrawlJob(String url, String boardPages, String topicPages, TopicFilter topicFilter, int priority) {
+        this.url = url;
+        this.boardPages = boardPages;
+        this.topicPages = topicPages;
+        this.topicFilter = topicFilter != null ? topicFilter : TopicFilter.NONE;
+        this.priority = clampPriority(priority);
+    }
+
+    static int clampPriority(int priority) {
+        return Math.max(MIN_PRIORITY, Math.min(MAX_PRIORITY, priority));
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getBoardPages() {
+        return boardPages;
+    }
+
+    public String getTopicPages() {
+        return topicPages;
+    }
+
+    public TopicFilter getTopicFilter() {
+        return topicFilter;
+    }
+
+    public ScraperSession getSession() {
+        return session;
+    }
+
+    // Estado visible: un trabajo activo en pausa se muestra como PAUSED.
+    public State getState() {
+        State current = state;
+        if (paused && (current == State.QUEUED || current == State.RUNNING)) {
+            return State.PAUSED;
+        }
+        return current;
+    }
+
+    public boolean isFinished() {
+        State current = state;
+        return current == State.COMPLETED || current == State.FAILED || current == State.CANCELLED;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public int getSkippedPages() {
+        return skippedPages;
+    }
+
+    public int getProcessedPages() {
+        return processedPages;
+    }
+
+    // Páginas que siguieron fallando después de agotar los reintentos.
+    public int getFailedPages() {
+        return failedPages;
+    }
+
+    public int getRecoveredPages() {
+        return recoveredPages;
+    }
+
+    public int getProgress() {
+        int total = totalPages;
+        return total == 0 ? (isFinished() ? 100 : 0) : ((processedPages + skippedPages + failedPages) * 100) / total;
+    }
+
+    public List<Post> getPosts() {
+        return posts;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
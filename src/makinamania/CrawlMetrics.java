@@ -0,0 +1,247 @@
+package makinamania;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Registro de métricas del scraping: contadores y, por etapa (fetchPage, parsePost, check.<hoster>,
+// discogs, json.save...), número de llamadas, errores e histograma de latencias.
+public class CrawlMetrics implements CrawlMetricsMXBean {
+    public static final String FETCH_PAGE = "fetchPage";
+    public static final String PARSE_POST = "parsePost";
+    public static final String CHECK_PREFIX = "check.";
+    public static final String DISCOGS = "discogs";
+    public static final String JSON_SAVE = "json.save";
+    public static final String JSON_LOAD = "json.load";
+    public static final String STOP_TO_IDLE = "crawl.stopToIdle";
+    public static final String UI_LIST_REPAINT = "ui.listRepaint";
+    public static final String UI_LIST_PAINT = "ui.listPaint";
+
+    private static final CrawlMetrics GLOBAL = createGlobal();
+
+    private final ConcurrentMap<String, Stage> stages = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, List<LongSupplier>> gauges = new ConcurrentHashMap<>();
+    private final CrawlMetrics parent;
+    private volatile long startMillis = System.currentTimeMillis();
+
+    public CrawlMetrics() {
+        this(null);
+    }
+
+    // Registro hijo: lo que se anota aquí también se anota en el padre (p. ej. un trabajo y el global).
+    public CrawlMetrics(CrawlMetrics parent) {
+        this.parent = parent;
+    }
+
+    public static CrawlMetrics global() {
+        return GLOBAL;
+    }
+
+    private static CrawlMetrics createGlobal() {
+        CrawlMetrics metrics = new CrawlMetrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(metrics, new ObjectName("makinamania:type=CrawlMetrics"));
+        } catch (Exception e) {
+            ConsoleLogger.warn("Could not register metrics MBean: " + e.getMessage());
+        }
+        return metrics;
+    }
+
+    // Empieza a medir una etapa; al cerrar la muestra se registra como error salvo que se llame a success().
+    public Sample start(String stage) {
+        return new Sample(this, stage, System.nanoTime());
+    }
+
+    public void record(String stage, long nanos, boolean success) {
+        Stage s = stages.computeIfAbsent(stage, k -> new Stage());
+        s.latency.recordNanos(nanos);
+        if (!success) {
+            s.errors.increment();
+        }
+        if (parent != null) {
+            parent.record(stage, nanos, success);
+        }
+    }
+
+    public void increment(String counter) {
+        add(counter, 1);
+    }
+
+    public void add(String counter, long delta) {
+        counters.computeIfAbsent(counter, k -> new LongAdder()).add(delta);
+        if (parent != null) {
+            parent.add(counter, delta);
+        }
+    }
+
+    // Valor instantáneo (p. ej. la ocupación de una cola) que se lee al pedirlo. Si varios crawls
+    // registran el mismo nombre se suman; el padre también lo ve.
+    public void registerGauge(String gauge, LongSupplier value) {
+        gauges.computeIfAbsent(gauge, k -> new CopyOnWriteArrayList<>()).add(value);
+        if (parent != null) {
+            parent.registerGauge(gauge, value);
+        }
+    }
+
+    public void unregisterGauge(String gauge, LongSupplier value) {
+        List<LongSupplier> values = gauges.get(gauge);
+        if (values != null) {
+            values.remove(value);
+        }
+        if (parent != null) {
+            parent.unregisterGauge(gauge, value);
+        }
+    }
+
+    public long getCounter(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    @Override
+    public List<StageSnapshot> getStages() {
+        List<StageSnapshot> result = new ArrayList<>();
+        for (Map.Entry<String, Stage> entry : new TreeMap<>(stages).entrySet()) {
+            result.add(entry.getValue().snapshot(entry.getKey()));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((name, adder) -> result.put(name, adder.sum()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> result = new TreeMap<>();
+        gauges.forEach((name, values) -> {
+            if (!values.isEmpty()) {
+                long sum = 0;
+                for (LongSupplier value : values) {
+                    sum += value.getAsLong();
+                }
+                result.put(name, sum);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public long getUptimeSeconds() {
+        return (System.currentTimeMillis() - startMillis) / 1000;
+    }
+
+    @Override
+    public void reset() {
+        stages.clear();
+        counters.clear();
+        startMillis = System.currentTimeMillis();
+    }
+
+    private static final class Stage {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+
+        StageSnapshot snapshot(String name) {
+            return new StageSnapshot(name, latency.getCount(), errors.sum(), latency.getTotalMicros(),
+                    latency.percentileMicros(0.50), latency.percentileMicros(0.95),
+                    latency.percentileMicros(0.99), latency.getMaxMicros());
+        }
+    }
+
+    // Medición en curso de una etapa, pensada para try-with-resources.
+    public static final class Sample implements AutoCloseable {
+        private final CrawlMetrics metrics;
+        private final String stage;
+        private final long startNanos;
+        private boolean success;
+
+        private Sample(CrawlMetrics metrics, String stage, long startNanos) {
+            this.metrics = metrics;
+            this.stage = stage;
+            this.startNanos = startNanos;
+        }
+
+        public void success() {
+            success = true;
+        }
+
+        @Override
+        public void close() {
+            metrics.record(stage, System.nanoTime() - startNanos, success);
+        }
+    }
+
+    // Foto de una etapa; sus getters son los atributos que ve JMX.
+    public static final class StageSnapshot {
+        private final String name;
+        private final long count;
+        private final long errors;
+        private final long totalMicros;
+        private final long p50Micros;
+        private final long p95Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+
+        public StageSnapshot(String name, long count, long errors, long totalMicros,
+                long p50Micros, long p95Micros, long p99Micros, long maxMicros) {
+            this.name = name;
+            this.count = count;
+            this.errors = errors;
+            this.totalMicros = totalMicros;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getTotalMicros() {
+            return totalMicros;
+        }
+
+        public long getP50Micros() {
+            return p50Micros;
+        }
+
+        public long getP95Micros() {
+            return p95Micros;
+        }
+
+        public long getP99Micros() {
+            return p99Micros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        public double getErrorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package makinamania;
+
+import java.util.List;
+import java.util.Map;
+
+// Vista JMX de CrawlMetrics (makinamania:type=CrawlMetrics).
+public interface CrawlMetricsMXBean {
+    List<CrawlMetrics.StageSnapshot> getStages();
+
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getGauges();
+
+    long getUptimeSeconds();
+
+    void reset();
+}
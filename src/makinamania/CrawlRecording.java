@@ -0,0 +1,65 @@
+package makinamania;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+// Grabación JFR de un scraping: usa la configuración "profile" del JDK más los eventos
+// de CrawlEvents y al parar la vuelca a resources/crawl-<fecha>.jfr para abrirla en JMC.
+public class CrawlRecording {
+    private static final String RECORDING_DIRECTORY = "resources";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Recording recording;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private CrawlRecording(Recording recording) {
+        this.recording = recording;
+    }
+
+    public static CrawlRecording start() throws IOException {
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration("profile");
+        } catch (ParseException e) {
+            throw new IOException("Invalid JFR configuration: " + e.getMessage(), e);
+        }
+
+        Recording recording = new Recording(configuration);
+        recording.setName("makinamania-crawl");
+        recording.setToDisk(true);
+        recording.enable(CrawlEvents.Fetch.class);
+        recording.enable(CrawlEvents.Parse.class);
+        recording.enable(CrawlEvents.Check.class);
+        recording.enable(CrawlEvents.Discogs.class);
+        recording.enable(CrawlEvents.Persist.class);
+        recording.start();
+
+        ConsoleLogger.start("JFR recording started");
+        return new CrawlRecording(recording);
+    }
+
+    // Para la grabación y la guarda en disco; devuelve la ruta del fichero .jfr.
+    public String stopAndDump() throws IOException {
+        File output = new File(RECORDING_DIRECTORY, "crawl-" + startedAt.format(FILE_TIMESTAMP) + ".jfr");
+        File parent = output.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        try {
+            recording.stop();
+            recording.dump(output.toPath());
+        } finally {
+            recording.close();
+        }
+
+        ConsoleLogger.success("JFR recording saved to: " + output.getPath());
+        return output.getPath();
+    }
+}
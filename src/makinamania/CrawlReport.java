@@ -0,0 +1,176 @@
+package makinamania;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Informe de una ejecución del scraping: se toma una foto de las métricas al empezar
+// y al terminar se guarda la diferencia junto a los totales de la ejecución.
+public class CrawlReport {
+    public static final String PAGES_SCRAPED = "pages.scraped";
+    public static final String PAGES_FAILED = "pages.failed";
+    public static final String PAGES_RETRIED = "pages.retried";
+    public static final String PAGES_RECOVERED = "pages.recovered";
+    public static final String PAGES_GAVE_UP = "pages.gaveUp";
+    public static final String POSTS_KNOWN = "posts.known";
+    public static final String BYTES_DOWNLOADED = "bytes.downloaded";
+    public static final String TOPIC_PAGES_FROM_LISTING = "topics.pageCountFromListing";
+    public static final String TOPIC_PAGES_PROBED = "topics.pageCountProbed";
+
+    private static final DateTimeFormatter ISO_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final CrawlMetrics metrics;
+    private final String source;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> startCounters;
+    private final Map<String, CrawlMetrics.StageSnapshot> startStages = new HashMap<>();
+
+    private int pagesRequested;
+    private int pagesSkipped;
+    private int topicsFiltered;
+    private int postsFound;
+    private int duplicatesFiltered;
+
+    public CrawlReport(CrawlMetrics metrics, String source) {
+        this.metrics = metrics;
+        this.source = source;
+        this.startCounters = metrics.getCounters();
+        for (CrawlMetrics.StageSnapshot stage : metrics.getStages()) {
+            startStages.put(stage.getName(), stage);
+        }
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setPagesRequested(int pagesRequested) {
+        this.pagesRequested = pagesRequested;
+    }
+
+    public void setPagesSkipped(int pagesSkipped) {
+        this.pagesSkipped = pagesSkipped;
+    }
+
+    public void setTopicsFiltered(int topicsFiltered) {
+        this.topicsFiltered = topicsFiltered;
+    }
+
+    public void setPostsFound(int postsFound) {
+        this.postsFound = postsFound;
+    }
+
+    public void setDuplicatesFiltered(int duplicatesFiltered) {
+        this.duplicatesFiltered = duplicatesFiltered;
+    }
+
+    // Construye el informe con lo ocurrido desde que se creó; outcome es "completed", "cancelled" o "failed".
+    public Map<String, Object> finish(String outcome) {
+        double wallSeconds = (System.nanoTime() - startNanos) / 1e9;
+        Map<String, Long> counters = counterDelta();
+
+        long pagesFetched = counters.getOrDefault(PAGES_SCRAPED, 0L);
+        long pagesFailed = counters.getOrDefault(PAGES_FAILED, 0L);
+
+        Map<String, Object> pages = new LinkedHashMap<>();
+        pages.put("requested", pagesRequested);
+        pages.put("fetched", pagesFetched);
+        pages.put("skipped", pagesSkipped);
+        pages.put("failed", pagesFailed);
+        pages.put("retried", counters.getOrDefault(PAGES_RETRIED, 0L));
+        pages.put("recovered", counters.getOrDefault(PAGES_RECOVERED, 0L));
+        pages.put("gaveUp", counters.getOrDefault(PAGES_GAVE_UP, 0L));
+
+        Map<String, Object> posts = new LinkedHashMap<>();
+        posts.put("found", postsFound);
+        posts.put("alreadyKnown", counters.getOrDefault(POSTS_KNOWN, 0L));
+        posts.put("duplicatesFiltered", duplicatesFiltered);
+        posts.put("unique", postsFound - duplicatesFiltered);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("source", source);
+        report.put("outcome", outcome);
+        report.put("startedAt", startedAt.format(ISO_FORMATTER));
+        report.put("finishedAt", LocalDateTime.now().format(ISO_FORMATTER));
+        report.put("wallTimeSeconds", round(wallSeconds));
+        report.put("pagesPerSecond", wallSeconds > 0 ? round((pagesFetched + pagesFailed) / wallSeconds) : 0.0);
+        report.put("bytesDownloaded", counters.getOrDefault(BYTES_DOWNLOADED, 0L));
+        report.put("pages", pages);
+        report.put("topicsFiltered", topicsFiltered);
+        report.put("posts", posts);
+        report.put("linkChecks", linkChecks(counters));
+        report.put("stages", stageDelta());
+        report.put("counters", counters);
+        return report;
+    }
+
+    // Enlaces comprobados por hoster a partir de los contadores check.<hoster>.alive/.dead.
+    private static Map<String, Object> linkChecks(Map<String, Long> counters) {
+        Map<String, long[]> byHoster = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : counters.entrySet()) {
+            String name = entry.getKey();
+            if (!name.startsWith(CrawlMetrics.CHECK_PREFIX)) {
+                continue;
+            }
+            boolean alive = name.endsWith(".alive");
+            if (!alive && !name.endsWith(".dead")) {
+                continue;
+            }
+            String hoster = name.substring(CrawlMetrics.CHECK_PREFIX.length(), name.lastIndexOf('.'));
+            byHoster.computeIfAbsent(hoster, k -> new long[2])[alive ? 0 : 1] += entry.getValue();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        byHoster.forEach((hoster, counts) -> {
+            long checked = counts[0] + counts[1];
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("checked", checked);
+            entry.put("alive", counts[0]);
+            entry.put("dead", counts[1]);
+            entry.put("aliveRatio", checked == 0 ? 0.0 : round((double) counts[0] / checked));
+            result.put(hoster, entry);
+        });
+        return result;
+    }
+
+    private Map<String, Long> counterDelta() {
+        Map<String, Long> result = new TreeMap<>();
+        metrics.getCounters().forEach((name, value) -> {
+            long delta = value - startCounters.getOrDefault(name, 0L);
+            if (delta > 0) {
+                result.put(name, delta);
+            }
+        });
+        return result;
+    }
+
+    // Tiempo acumulado por etapa durante la ejecución (los percentiles no se pueden restar, así que van medias).
+    private Map<String, Object> stageDelta() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (CrawlMetrics.StageSnapshot stage : metrics.getStages()) {
+            CrawlMetrics.StageSnapshot before = startStages.get(stage.getName());
+            long count = stage.getCount() - (before != null ? before.getCount() : 0);
+            if (count <= 0) {
+                continue;
+            }
+            long errors = Math.max(0, stage.getErrors() - (before != null ? before.getErrors() : 0));
+            long totalMicros = Math.max(0, stage.getTotalMicros() - (before != null ? before.getTotalMicros() : 0));
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", count);
+            entry.put("errors", errors);
+            entry.put("totalMs", round(totalMicros / 1000.0));
+            entry.put("meanMs", round(totalMicros / 1000.0 / count));
+            result.put(stage.getName(), entry);
+        }
+        return result;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,381 @@
+package makinamania;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Cola de trabajos de scraping con un planificador justo (stride scheduling): cada página
+// descargada adelanta el "pass" del trabajo en STRIDE / prioridad y siempre se atiende al
+// trabajo con menor pass, así los trabajos se intercalan en proporción a su prioridad.
+// El presupuesto de concurrencia es global: como mucho "concurrency" páginas a la vez entre todos.
+// Una página que falla vuelve a la cola de su trabajo tras la espera de la RetryPolicy.
+public class CrawlScheduler {
+    public interface Listener {
+        // Posts encontrados en una página; se llama desde los hilos de trabajo.
+        default void postsScraped(CrawlJob job, List<Post> posts) {
+        }
+
+        // Cambio de estado de un trabajo (añadido, en marcha, terminado...).
+        default void jobChanged(CrawlJob job) {
+        }
+    }
+
+    public static final int MAX_CONCURRENCY = 16;
+    private static final long STRIDE = 1L << 20;
+
+    private final Object lock = new Object();
+    private final List<CrawlJob> jobs = new ArrayList<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final RetryPolicy retryPolicy = new RetryPolicy();
+    private final ScheduledExecutorService retryTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "crawl-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Set<String> scannedUrls;
+    private int concurrency;
+    private int running;
+    private long virtualTime;
+
+    public CrawlScheduler(int concurrency) {
+        setConcurrency(concurrency);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public int getConcurrency() {
+        synchronized (lock) {
+            return concurrency;
+        }
+    }
+
+    // Cambia el número máximo de páginas en paralelo; los hilos se crean según hacen falta.
+    public void setConcurrency(int newConcurrency) {
+        synchronized (lock) {
+            concurrency = Math.max(1, Math.min(MAX_CONCURRENCY, newConcurrency));
+            while (workers.size() < concurrency) {
+                Thread worker = new Thread(this::workLoop, "crawl-worker-" + (workers.size() + 1));
+                worker.setDaemon(true);
+                workers.add(worker);
+                worker.start();
+            }
+            lock.notifyAll();
+        }
+    }
+
+    public CrawlJob submit(CrawlJob job) {
+        synchronized (lock) {
+            job.pass = virtualTime;
+            jobs.add(job);
+            lock.notifyAll();
+        }
+        ConsoleLogger.info("Queued crawl job #" + job.getId() + ": " + job.getUrl());
+        notifyChanged(job);
+        return job;
+    }
+
+    public List<CrawlJob> getJobs() {
+        synchronized (lock) {
+            return new ArrayList<>(jobs);
+        }
+    }
+
+    public void pause(CrawlJob job) {
+        synchronized (lock) {
+            if (!job.isFinished()) {
+                job.paused = true;
+            }
+        }
+        notifyChanged(job);
+    }
+
+    public void resume(CrawlJob job) {
+        synchronized (lock) {
+            if (job.paused) {
+                job.paused = false;
+                // No acumula "crédito" mientras estaba parado.
+                job.pass = Math.max(job.pass, virtualTime);
+                lock.notifyAll();
+            }
+        }
+        notifyChanged(job);
+    }
+
+    public void setPriority(CrawlJob job, int priority) {
+        synchronized (lock) {
+            job.priority = CrawlJob.clampPriority(priority);
+        }
+        notifyChanged(job);
+    }
+
+    // Cancela un trabajo: no se lanzan más páginas y las que estén en curso se abandonan.
+    public void cancel(CrawlJob job) {
+        boolean finishNow;
+        synchronized (lock) {
+            if (job.isFinished() || job.cancelRequested) {
+                return;
+            }
+            job.cancelRequested = true;
+            job.pendingPages.clear();
+            job.retryWaiting = 0;
+            job.getSession().stop();
+            finishNow = job.inFlight == 0 && job.state != CrawlJob.State.RESOLVING;
+            if (finishNow) {
+                job.state = CrawlJob.State.CANCELLED;
+            }
+        }
+        if (finishNow) {
+            finish(job);
+        } else {
+            notifyChanged(job);
+        }
+    }
+
+    // Quita de la lista los trabajos terminados.
+    public void clearFinished() {
+        synchronized (lock) {
+            jobs.removeIf(CrawlJob::isFinished);
+        }
+    }
+
+    private void workLoop() {
+        while (true) {
+            Runnable task;
+            try {
+                task = nextTask();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                ConsoleLogger.error("Crawl worker failed", e);
+            } finally {
+                synchronized (lock) {
+                    running--;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private Runnable nextTask() throws InterruptedException {
+        synchronized (lock) {
+            while (true) {
+                if (running < concurrency && workers.indexOf(Thread.currentThread()) < concurrency) {
+                    Runnable task = pickTask();
+                    if (task != null) {
+                        running++;
+                        return task;
+                    }
+                }
+                lock.wait();
+            }
+        }
+    }
+
+    // Elige el trabajo activo con menor pass; un trabajo nuevo empieza resolviendo sus URLs.
+    private Runnable pickTask() {
+        CrawlJob best = null;
+        for (CrawlJob job : jobs) {
+            if (job.paused || job.cancelRequested) {
+                continue;
+            }
+            boolean runnable = job.state == CrawlJob.State.QUEUED
+                    || (job.state == CrawlJob.State.RUNNING && !job.pendingPages.isEmpty());
+            if (runnable && (best == null || job.pass < best.pass)) {
+                best = job;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+
+        CrawlJob job = best;
+        virtualTime = Math.max(virtualTime, job.pass);
+        job.pass += STRIDE / job.priority;
+
+        if (job.state == CrawlJob.State.QUEUED) {
+            job.state = CrawlJob.State.RESOLVING;
+            return () -> resolve(job);
+        }
+        String page = job.pendingPages.poll();
+        job.inFlight++;
+        return () -> scrape(job, page);
+    }
+
+    private void resolve(CrawlJob job) {
+        notifyChanged(job);
+        job.report = new CrawlReport(job.getSession().getMetrics(), job.getUrl());
+
+        List<String> links;
+        try {
+            links = job.getSession().resolveTopicPageUrls(job.getUrl(), job.getBoardPages(), job.getTopicPages(),
+                    job.getTopicFilter());
+        } catch (Exception e) {
+            ConsoleLogger.error("Crawl job #" + job.getId() + " failed: " + e.getMessage());
+            synchronized (lock) {
+                job.error = e.getMessage();
+                job.state = job.cancelRequested ? CrawlJob.State.CANCELLED : CrawlJob.State.FAILED;
+            }
+            finish(job);
+            return;
+        }
+
+        boolean done;
+        int fresh = 0;
+        synchronized (lock) {
+            if (scannedUrls == null) {
+                scannedUrls = JsonUtils.loadScannedUrls();
+            }
+            Set<String> seen = new HashSet<>();
+            for (String link : links) {
+                if (seen.add(link) && !scannedUrls.contains(link)) {
+                    job.pendingPages.add(link);
+                    fresh++;
+                }
+            }
+            job.totalPages = links.size();
+            job.skippedPages = links.size() - fresh;
+            job.report.setPagesRequested(links.size());
+            job.report.setPagesSkipped(job.skippedPages);
+
+            done = job.pendingPages.isEmpty() || job.cancelRequested;
+            if (done) {
+                job.pendingPages.clear();
+                job.state = job.cancelRequested ? CrawlJob.State.CANCELLED : CrawlJob.State.COMPLETED;
+            } else {
+                job.state = CrawlJob.State.RUNNING;
+                job.pass = Math.max(job.pass, virtualTime);
+            }
+            lock.notifyAll();
+        }
+
+        if (done) {
+            finish(job);
+        } else {
+            ConsoleLogger.start("Crawl job #" + job.getId() + ": " + fresh + " new URLs (skipped "
+                    + job.skippedPages + ")");
+            notifyChanged(job);
+        }
+    }
+
+    private void scrape(CrawlJob job, String page) {
+        List<Post> posts;
+        boolean failed = false;
+        try {
+            posts = job.getSession().scrapePage(page);
+        } catch (IOException e) {
+            posts = Collections.emptyList();
+            failed = true;
+        }
+        boolean cancelled = job.getSession().stopRequested();
+        CrawlMetrics metrics = job.getSession().getMetrics();
+        if (!posts.isEmpty()) {
+            ConsoleLogger.success("Job #" + job.getId() + ": found " + posts.size() + " posts in " + page);
+            job.getPosts().addAll(posts);
+            for (Listener listener : listeners) {
+                listener.postsScraped(job, posts);
+            }
+        }
+
+        boolean done;
+        long retryDelay = -1;
+        synchronized (lock) {
+            // Ni una página que falló ni una interrumpida por la cancelación se dan por escaneadas.
+            int previousFailures = job.failedAttempts.getOrDefault(page, 0);
+            if (failed && !cancelled) {
+                int attempts = previousFailures + 1;
+                job.failedAttempts.put(page, attempts);
+                if (retryPolicy.shouldRetry(attempts)) {
+                    retryDelay = retryPolicy.delayMs(attempts);
+                    job.retryWaiting++;
+                } else {
+                    job.failedPages++;
+                    metrics.increment(CrawlReport.PAGES_GAVE_UP);
+                }
+            } else if (!cancelled) {
+                scannedUrls.add(page);
+                job.scannedPages.add(page);
+                job.processedPages++;
+                if (previousFailures > 0) {
+                    job.recoveredPages++;
+                    metrics.increment(CrawlReport.PAGES_RECOVERED);
+                }
+            }
+            job.inFlight--;
+            done = job.inFlight == 0 && job.pendingPages.isEmpty() && job.retryWaiting == 0;
+            if (done) {
+                job.state = job.cancelRequested ? CrawlJob.State.CANCELLED : CrawlJob.State.COMPLETED;
+            }
+        }
+
+        if (retryDelay >= 0) {
+            metrics.increment(CrawlReport.PAGES_RETRIED);
+            ConsoleLogger.warn("Job #" + job.getId() + ": retrying " + page + " in " + retryDelay + " ms");
+            retryTimer.schedule(() -> requeue(job, page), retryDelay, TimeUnit.MILLISECONDS);
+        }
+        if (done) {
+            finish(job);
+        }
+    }
+
+    // Devuelve a la cola una página que falló, salvo que el trabajo se haya cancelado mientras esperaba.
+    private void requeue(CrawlJob job, String page) {
+        synchronized (lock) {
+            if (job.cancelRequested) {
+                return;
+            }
+            job.retryWaiting--;
+            job.pendingPages.add(page);
+            lock.notifyAll();
+        }
+    }
+
+    // Guarda los posts y las URLs escaneadas del trabajo y su informe.
+    private void finish(CrawlJob job) {
+        List<Post> posts = new ArrayList<>(job.getPosts());
+        List<Post> unique = new ArrayList<>(new LinkedHashSet<>(posts));
+        boolean postsSaved = unique.isEmpty() || JsonUtils.toJson(unique);
+
+        // Solo las páginas de este trabajo y solo si sus posts están en disco: scannedUrls también
+        // tiene las de otros trabajos en curso, cuyos posts aún no se han guardado.
+        Set<String> scanned;
+        synchronized (lock) {
+            scanned = new LinkedHashSet<>(job.scannedPages);
+        }
+        if (postsSaved && !scanned.isEmpty()) {
+            JsonUtils.saveScannedUrls(scanned);
+        }
+
+        if (job.report != null) {
+            job.report.setPostsFound(posts.size());
+            job.report.setDuplicatesFiltered(posts.size() - unique.size());
+            String outcome = job.state == CrawlJob.State.COMPLETED ? "completed"
+                    : job.state == CrawlJob.State.CANCELLED ? "cancelled" : "failed";
+            JsonUtils.saveReport(job.report.finish(outcome), job.report.getStartedAt(), "job" + job.getId());
+        }
+
+        ConsoleLogger.stop("Crawl job #" + job.getId() + " " + job.state.name().toLowerCase() + ": "
+                + unique.size() + " unique posts, " + job.getRecoveredPages() + " pages recovered after retrying, "
+                + job.getFailedPages() + " still failing");
+        notifyChanged(job);
+    }
+
+    private void notifyChanged(CrawlJob job) {
+        for (Listener listener : listeners) {
+            listener.jobChanged(job);
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package makinamania;
+
+import org.jsoup.nodes.Document;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+// Scraping de un board o topic sin dependencias de UI: resuelve las URLs, descarta las ya
+// escaneadas y pasa cada página por un pipeline de etapas (descarga → análisis → comprobación de
+// enlaces y Discogs → guardado), cada una con su pool y con colas acotadas entre ellas, avisando
+// al listener de cada página terminada. Las páginas que fallan se reintentan con espera creciente
+// y nunca se marcan como escaneadas. Lo usan tanto el ScrapingPanel como el HeadlessCrawler.
+public class Crawler {
+    public static final int DEFAULT_THREADS = 3;
+    private static final int VERIFY_THREADS_PER_FETCH_THREAD = 2;
+    private static final int QUEUE_SLOTS_PER_THREAD = 2;
+
+    public interface Listener {
+        // Se llama al terminar cada página, antes de marcarla como escaneada.
+        void pageScraped(String url, List<Post> posts, int processed, int totalUrls);
+    }
+
+    private final ScraperSession session;
+    private final Listener listener;
+    private final int threads;
+    private final List<Post> posts = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger completed = new AtomicInteger(0);
+    private final AtomicInteger outstanding = new AtomicInteger(0);
+    private final AtomicInteger recoveredUrls = new AtomicInteger(0);
+    private final Set<String> failedUrls = ConcurrentHashMap.newKeySet();
+    private final RetryPolicy retryPolicy;
+    private ScheduledThreadPoolExecutor fetchers;
+    private ThreadPoolExecutor parsers;
+    private ThreadPoolExecutor verifiers;
+    private ThreadPoolExecutor persister;
+    private volatile boolean cancelled;
+    private Set<String> scannedUrls;
+    private CrawlFrontier frontier;
+    private TopicFilter topicFilter = TopicFilter.NONE;
+    private int totalUrls;
+    private int skippedUrls;
+
+    public Crawler(Listener listener) {
+        this(ScraperSession.defaultSession(), listener, DEFAULT_THREADS);
+    }
+
+    public Crawler(ScraperSession session, Listener listener, int threads) {
+        this(session, listener, threads, new RetryPolicy());
+    }
+
+    public Crawler(ScraperSession session, Listener listener, int threads, RetryPolicy retryPolicy) {
+        this.session = session;
+        this.listener = listener;
+        this.threads = Math.max(1, threads);
+        this.retryPolicy = retryPolicy;
+    }
+
+    public ScraperSession getSession() {
+        return session;
+    }
+
+    // Filtro de títulos para los topics de un board; se aplica al leer el listado.
+    public void setTopicFilter(TopicFilter topicFilter) {
+        this.topicFilter = topicFilter != null ? topicFilter : TopicFilter.NONE;
+    }
+
+    // Genera las URLs de páginas de topic a partir de una URL de board o de topic.
+    public List<String> resolveUrls(String url, String boardPages, String topicPages) throws IOException {
+        return session.resolveTopicPageUrls(url, boardPages, topicPages, topicFilter);
+    }
+
+    // Scrapea las URLs que no estén en scanned.json; devuelve cuántas había pendientes.
+    public int crawl(List<String> links) throws InterruptedException {
+        totalUrls = links.size();
+        scannedUrls = JsonUtils.loadScannedUrls();
+        List<String> linksToScrape = JsonUtils.filterNewUrls(links, scannedUrls);
+        skippedUrls = totalUrls - linksToScrape.size();
+        return scrapeAll(linksToScrape);
+    }
+
+    // Como crawl(links), pero descubre las páginas con una CrawlFrontier guardada en disco:
+    // si un crawl anterior con la misma URL y patrones se cortó, sigue donde lo dejó.
+    public int crawl(String url, String boardPages, String topicPages) throws IOException, InterruptedException {
+        frontier = CrawlFrontier.open(url, boardPages, topicPages, topicFilter);
+        if (frontier.isResumed()) {
+            ConsoleLogger.info("Resuming interrupted crawl: " + frontier.getPages(CrawlFrontier.PageState.DONE).size()
+                    + " of " + frontier.size() + " pages already done");
+        }
+        boolean discovered;
+        try {
+            discovered = frontier.discover(session);
+        } catch (IOException e) {
+            // Una petición abortada por la parada no es un error: el cursor ya está guardado.
+            if (!isCancelled()) {
+                throw e;
+            }
+            discovered = false;
+        }
+        if (frontier.getFilteredTopics() > 0) {
+            ConsoleLogger.info("Title filter skipped " + frontier.getFilteredTopics() + " topics");
+        }
+        if (!discovered) {
+            ConsoleLogger.stop("Crawl stopped while discovering pages; progress saved");
+            return 0;
+        }
+
+        List<String> candidates = frontier.getPages(CrawlFrontier.PageState.PENDING);
+        candidates.addAll(frontier.getPages(CrawlFrontier.PageState.FAILED));
+        return scrapeFrontier(candidates);
+    }
+
+    // Vuelve a scrapear solo las páginas que fallaron en el último crawl con esta URL y patrones.
+    public int retryFailed(String url, String boardPages, String topicPages) throws InterruptedException {
+        frontier = CrawlFrontier.open(url, boardPages, topicPages, topicFilter);
+        List<String> failed = frontier.getPages(CrawlFrontier.PageState.FAILED);
+        if (failed.isEmpty()) {
+            ConsoleLogger.info("No failed pages to retry for " + url);
+        }
+        return scrapeFrontier(failed);
+    }
+
+    private int scrapeFrontier(List<String> candidates) throws InterruptedException {
+        totalUrls = frontier.size();
+        scannedUrls = JsonUtils.loadScannedUrls();
+        List<String> linksToScrape = new ArrayList<>();
+        for (String link : candidates) {
+            if (scannedUrls.contains(link)) {
+                frontier.mark(link, CrawlFrontier.PageState.DONE);
+            } else {
+                linksToScrape.add(link);
+            }
+        }
+        skippedUrls = totalUrls - linksToScrape.size();
+        return scrapeAll(linksToScrape);
+    }
+
+    // Pasa las páginas por el pipeline y espera a que terminen. Al parar se descartan los
+    // reintentos pendientes y se deja que cada etapa vacíe lo que ya tenía, en orden.
+    private int scrapeAll(List<String> linksToScrape) throws InterruptedException {
+        if (linksToScrape.isEmpty()) {
+            ConsoleLogger.info("All URLs have already been scanned. No new URLs to process.");
+            checkpoint();
+            return 0;
+        }
+
+        ConsoleLogger.start("Starting scraping of " + linksToScrape.size() + " new URLs (skipped " + skippedUrls + ")");
+        fetchers = new ScheduledThreadPoolExecutor(threads, stageThreads("crawl-fetch"));
+        fetchers.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        parsers = stagePool("crawl-parse", Math.max(1, Runtime.getRuntime().availableProcessors()));
+        verifiers = stagePool("crawl-verify", threads * VERIFY_THREADS_PER_FETCH_THREAD);
+        persister = stagePool("crawl-persist", 1);
+        Map<String, LongSupplier> gauges = stageGauges();
+        gauges.forEach(session.getMetrics()::registerGauge);
+        outstanding.set(linksToScrape.size());
+
+        // Al parar se despierta enseguida a quien espera, sin aguardar al siguiente sondeo.
+        CancellationToken.Registration wakeOnCancel = session.getCancellation().onCancel(this::wakeUp);
+        try {
+            for (String link : linksToScrape) {
+                fetchers.execute(() -> fetch(link, 0));
+            }
+            synchronized (outstanding) {
+                while (outstanding.get() > 0 && !isCancelled()) {
+                    outstanding.wait(250);
+                }
+            }
+        } finally {
+            wakeOnCancel.close();
+            fetchers.shutdown();
+        }
+        try {
+            for (ThreadPoolExecutor stage : new ThreadPoolExecutor[] { fetchers, parsers, verifiers, persister }) {
+                stage.shutdown();
+                stage.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            gauges.forEach(session.getMetrics()::unregisterGauge);
+        }
+        if (session.stopRequested()) {
+            long stopNanos = System.nanoTime() - session.getCancellation().getCancelledAtNanos();
+            session.getMetrics().record(CrawlMetrics.STOP_TO_IDLE, stopNanos, true);
+            ConsoleLogger.stop("Crawl idle " + stopNanos / 1_000_000 + " ms after stop was requested");
+        }
+        return linksToScrape.size();
+    }
+
+    // Pool de una etapa con cola acotada: si está llena, quien entrega el trabajo espera a que haya
+    // hueco, así que una etapa lenta frena a las anteriores en vez de acumular páginas en memoria.
+    private static ThreadPoolExecutor stagePool(String name, int size) {
+        return new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(size * QUEUE_SLOTS_PER_THREAD), stageThreads(name), (task, pool) -> {
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException(name + " is shut down");
+                    }
+                    try {
+                        pool.getQueue().put(task);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException(e);
+                    }
+                });
+    }
+
+    private static ThreadFactory stageThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Cola y hilos ocupados de cada etapa, para ver en Stats cuál es el cuello de botella.
+    // En la cola de descargas cuentan también los reintentos que esperan su turno.
+    private Map<String, LongSupplier> stageGauges() {
+        Map<String, LongSupplier> gauges = new LinkedHashMap<>();
+        String[] names = { "fetch", "parse", "verify", "persist" };
+        ThreadPoolExecutor[] stages = { fetchers, parsers, verifiers, persister };
+        for (int i = 0; i < stages.length; i++) {
+            ThreadPoolExecutor stage = stages[i];
+            gauges.put("pipeline." + names[i] + ".queued", () -> stage.getQueue().size());
+            gauges.put("pipeline." + names[i] + ".busy", stage::getActiveCount);
+        }
+        return gauges;
+    }
+
+    // Etapa 1: descarga la página. Si falla se reintenta según la RetryPolicy.
+    private void fetch(String link, int failedAttempts) {
+        boolean handedOff = false;
+        try {
+            if (isCancelled()) {
+                return;
+            }
+            markFrontier(link, CrawlFrontier.PageState.IN_FLIGHT);
+            ConsoleLogger.scraping(String.valueOf(completed.get() + 1), String.valueOf(totalUrls), link);
+            Document doc;
+            try {
+                doc = session.fetchPostsPage(link);
+            } catch (IOException e) {
+                failed(link, failedAttempts + 1);
+                handedOff = true;
+                return;
+            }
+            parsers.execute(() -> parse(link, doc, failedAttempts));
+            handedOff = true;
+        } catch (RejectedExecutionException e) {
+            // El pipeline ya se está cerrando por una parada: la página queda pendiente o fallida en la frontera.
+        } catch (Exception ex) {
+            ConsoleLogger.error("Error scraping link: " + link + " -> " + ex.getMessage());
+        } finally {
+            if (!handedOff) {
+                release();
+            }
+        }
+    }
+
+    // Etapa 2: saca los posts del HTML. Solo usa CPU, así que el pool tiene un hilo por núcleo.
+    private void parse(String link, Document doc, int failedAttempts) {
+        boolean handedOff = false;
+        try {
+            List<Post> candidates;
+            try {
+                candidates = session.parsePostsPage(link, doc);
+            } catch (IOException e) {
+                failed(link, failedAttempts + 1);
+                handedOff = true;
+                return;
+            }
+            verifiers.execute(() -> verify(link, candidates, failedAttempts));
+            handedOff = true;
+        } catch (RejectedExecutionException e) {
+            // Parada en curso, como en fetch().
+        } catch (Exception ex) {
+            ConsoleLogger.error("Error scraping link: " + link + " -> " + ex.getMessage());
+        } finally {
+            if (!handedOff) {
+                release();
+            }
+        }
+    }
+
+    // Etapa 3: comprueba los enlaces y busca en Discogs; casi todo es esperar a la red.
+    private void verify(String link, List<Post> candidates, int failedAttempts) {
+        boolean handedOff = false;
+        try {
+            List<Post> scrapedPosts;
+            try {
+                scrapedPosts = session.verifyPosts(link, candidates);
+            } catch (IOException e) {
+                failed(link, failedAttempts + 1);
+                handedOff = true;
+                return;
+            }
+            persister.execute(() -> persist(link, scrapedPosts, failedAttempts + 1, false));
+            handedOff = true;
+        } catch (RejectedExecutionException e) {
+            // Parada en curso, como en fetch().
+        } catch (Exception ex) {
+            ConsoleLogger.error("Error scraping link: " + link + " -> " + ex.getMessage());
+        } finally {
+            if (!handedOff) {
+                release();
+            }
+        }
+    }
+
+    // Etapa 4, en un solo hilo: junta los posts y da la página por terminada.
+    private void persist(String link, List<Post> scrapedPosts, int attempts, boolean failed) {
+        try {
+            if (!failed) {
+                if (!scrapedPosts.isEmpty()) {
+                    ConsoleLogger.success("Found " + scrapedPosts.size() + " posts in " + link);
+                    posts.addAll(scrapedPosts);
+                }
+                if (attempts > 1 && !session.stopRequested()) {
+                    recoveredUrls.incrementAndGet();
+                    session.getMetrics().increment(CrawlReport.PAGES_RECOVERED);
+                    ConsoleLogger.success("Recovered " + link + " on attempt " + attempts);
+                }
+            }
+            pageDone(link, scrapedPosts, failed);
+        } catch (Exception ex) {
+            ConsoleLogger.error("Error scraping link: " + link + " -> " + ex.getMessage());
+        } finally {
+            release();
+        }
+    }
+
+    // Intento fallido en cualquier etapa: si quedan intentos se vuelve a programar la descarga con
+    // espera; si no, la página se da por perdida. Una página cortada por la parada vuelve a quedar
+    // pendiente. Puede lanzar RejectedExecutionException si se para.
+    private void failed(String link, int attempts) {
+        if (isCancelled()) {
+            markFrontier(link, CrawlFrontier.PageState.PENDING);
+            release();
+            return;
+        }
+        markFrontier(link, CrawlFrontier.PageState.FAILED);
+        if (retryPolicy.shouldRetry(attempts)) {
+            long delay = retryPolicy.delayMs(attempts);
+            ConsoleLogger.warn("Retrying " + link + " in " + delay + " ms (attempt " + (attempts + 1) + "/"
+                    + retryPolicy.getMaxAttempts() + ")");
+            session.getMetrics().increment(CrawlReport.PAGES_RETRIED);
+            fetchers.schedule(() -> fetch(link, attempts), delay, TimeUnit.MILLISECONDS);
+        } else {
+            ConsoleLogger.error("Giving up on " + link + " after " + attempts + " attempts");
+            persister.execute(() -> persist(link, Collections.emptyList(), attempts, true));
+        }
+    }
+
+    // Una página ha salido del pipeline.
+    private void release() {
+        if (outstanding.decrementAndGet() <= 0) {
+            wakeUp();
+        }
+    }
+
+    private void wakeUp() {
+        synchronized (outstanding) {
+            outstanding.notifyAll();
+        }
+    }
+
+    // Página terminada (con o sin éxito): avisa al listener y después la marca. Una página que
+    // falló o que cortó la parada no se da por escaneada.
+    private void pageDone(String link, List<Post> scrapedPosts, boolean failed) {
+        int processed = completed.incrementAndGet() + skippedUrls;
+        listener.pageScraped(link, scrapedPosts, processed, totalUrls);
+
+        if (failed) {
+            failedUrls.add(link);
+            session.getMetrics().increment(CrawlReport.PAGES_GAVE_UP);
+        } else if (session.stopRequested()) {
+            markFrontier(link, CrawlFrontier.PageState.PENDING);
+        } else {
+            // Solo en memoria: quien guarda los posts escribe scanned.json después de ellos.
+            scannedUrls.add(link);
+            markFrontier(link, CrawlFrontier.PageState.DONE);
+        }
+    }
+
+    private void markFrontier(String link, CrawlFrontier.PageState pageState) {
+        if (frontier != null) {
+            frontier.mark(link, pageState);
+        }
+    }
+
+    // Avisa a la frontera de que los posts y scanned.json ya están guardados hasta aquí.
+    public void checkpoint() {
+        if (frontier != null) {
+            frontier.checkpoint();
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+        session.stop();
+    }
+
+    public boolean isCancelled() {
+        return cancelled || session.stopRequested() || Thread.currentThread().isInterrupted();
+    }
+
+    public List<Post> getPosts() {
+        return posts;
+    }
+
+    public Set<String> getScannedUrls() {
+        return scannedUrls;
+    }
+
+    public int getTotalUrls() {
+        return totalUrls;
+    }
+
+    public int getSkippedUrls() {
+        return skippedUrls;
+    }
+
+    public int getFilteredTopics() {
+        return frontier != null ? frontier.getFilteredTopics() : 0;
+    }
+
+    // Páginas que siguieron fallando después de agotar los reintentos.
+    public Set<String> getFailedUrls() {
+        return failedUrls;
+    }
+
+    // Páginas que fallaron al menos una vez y acabaron bien en un reintento.
+    public int getRecoveredUrls() {
+        return recoveredUrls.get();
+    }
+}
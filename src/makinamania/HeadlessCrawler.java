@@ -0,0 +1,268 @@
+package makinamania;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Punto de entrada sin interfaz gráfica (cron, servidores sin display). No toca Swing ni FlatLaf:
+// usa el mismo Crawler que la pestaña Scraping y va guardando posts.json y scanned.json por lotes.
+//
+// Uso: HeadlessCrawler <url> [--board-pages SPEC] [--topic-pages SPEC] [--threads N] [--flush-every N]
+//                            [--include WORDS] [--exclude WORDS] [--title-regex REGEX] [--skip-requests]
+//                            [--retry-failed] [--log-level LEVEL] [--log-file PATH]
+public class HeadlessCrawler implements Crawler.Listener {
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_USAGE = 2;
+    public static final int EXIT_STOPPED = 3;
+
+    private static final int DEFAULT_FLUSH_EVERY = 20;
+    private static final long SHUTDOWN_WAIT_MS = 30_000;
+
+    private final int flushEvery;
+    private final Crawler crawler;
+    private final List<Post> pendingPosts = new ArrayList<>();
+    private int pagesSinceFlush;
+    private int flushedPosts;
+
+    private HeadlessCrawler(int threads, int flushEvery, TopicFilter topicFilter) {
+        this.flushEvery = Math.max(1, flushEvery);
+        this.crawler = new Crawler(ScraperSession.defaultSession(), this, threads);
+        crawler.setTopicFilter(topicFilter);
+    }
+
+    public static void main(String[] args) {
+        int exitCode;
+        try {
+            exitCode = run(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            printUsage();
+            exitCode = EXIT_USAGE;
+        }
+        ConsoleLogger.flush(2000);
+        System.exit(exitCode);
+    }
+
+    public static int run(String[] args) {
+        String url = null;
+        String boardPages = "1";
+        String topicPages = "*";
+        int threads = Crawler.DEFAULT_THREADS;
+        int flushEvery = DEFAULT_FLUSH_EVERY;
+        boolean retryFailed = false;
+        String include = null;
+        String exclude = null;
+        String titleRegex = null;
+        boolean skipRequests = false;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--board-pages":
+                    boardPages = requireValue(args, ++i, arg);
+                    break;
+                case "--topic-pages":
+                    topicPages = requireValue(args, ++i, arg);
+                    break;
+                case "--threads":
+                    threads = parsePositive(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--flush-every":
+                    flushEvery = parsePositive(requireValue(args, ++i, arg), arg);
+                    break;
+                case "--include":
+                    include = requireValue(args, ++i, arg);
+                    break;
+                case "--exclude":
+                    exclude = requireValue(args, ++i, arg);
+                    break;
+                case "--title-regex":
+                    titleRegex = requireValue(args, ++i, arg);
+                    break;
+                case "--skip-requests":
+                    skipRequests = true;
+                    break;
+                case "--retry-failed":
+                    retryFailed = true;
+                    break;
+                case "--log-level":
+                    ConsoleLogger.setLevel(ConsoleLogger.Level.valueOf(requireValue(args, ++i, arg).toUpperCase()));
+                    break;
+                case "--log-file":
+                    String logFile = requireValue(args, ++i, arg);
+                    try {
+                        ConsoleLogger.enableFileSink(logFile, ConsoleLogger.DEFAULT_FILE_MAX_BYTES,
+                                ConsoleLogger.DEFAULT_FILE_COUNT);
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("Cannot open log file " + logFile + ": " + e.getMessage());
+                    }
+                    break;
+                case "-h":
+                case "--help":
+                    printUsage();
+                    return EXIT_OK;
+                default:
+                    if (arg.startsWith("--") || url != null) {
+                        throw new IllegalArgumentException("Unexpected argument: " + arg);
+                    }
+                    url = arg.trim();
+            }
+        }
+
+        if (url == null) {
+            throw new IllegalArgumentException("Missing board or topic URL");
+        }
+        if (!MakinamaniaScraper.isBoardUrl(url) && !MakinamaniaScraper.isTopicUrl(url)) {
+            throw new IllegalArgumentException("Not a MakinaMania board or topic URL: " + url);
+        }
+
+        TopicFilter topicFilter;
+        try {
+            topicFilter = TopicFilter.of(include, exclude, titleRegex, skipRequests);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for --title-regex: " + titleRegex);
+        }
+        return new HeadlessCrawler(threads, flushEvery, topicFilter).crawl(url, boardPages, topicPages, retryFailed);
+    }
+
+    private int crawl(String url, String boardPages, String topicPages, boolean retryFailed) {
+        CrawlReport report = new CrawlReport(crawler.getSession().getMetrics(), url);
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicInteger result = new AtomicInteger(EXIT_STOPPED);
+        // Con Ctrl+C / SIGTERM main() no llega a su System.exit (bloquearía con la JVM ya cerrándose)
+        // y la JVM saldría con 130/143: tras guardar el checkpoint se sale aquí con el código propio.
+        Thread shutdownHook = new Thread(() -> {
+            crawler.cancel();
+            try {
+                finished.await(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ConsoleLogger.flush(2000);
+            Runtime.getRuntime().halt(finished.getCount() == 0 ? result.get() : EXIT_STOPPED);
+        }, "headless-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        String outcome = "completed";
+        int exitCode = EXIT_OK;
+        try {
+            if (retryFailed) {
+                crawler.retryFailed(url, boardPages, topicPages);
+            } else {
+                crawler.crawl(url, boardPages, topicPages);
+            }
+            if (crawler.isCancelled()) {
+                outcome = "cancelled";
+                exitCode = EXIT_STOPPED;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "cancelled";
+            exitCode = EXIT_STOPPED;
+        } catch (Exception e) {
+            ConsoleLogger.error("Crawl failed: " + e.getMessage());
+            outcome = "failed";
+            exitCode = EXIT_FAILED;
+        } finally {
+            flush();
+
+            List<Post> posts = crawler.getPosts();
+            int unique = new HashSet<>(posts).size();
+            report.setPagesRequested(crawler.getTotalUrls());
+            report.setPagesSkipped(crawler.getSkippedUrls());
+            report.setTopicsFiltered(crawler.getFilteredTopics());
+            report.setPostsFound(posts.size());
+            report.setDuplicatesFiltered(posts.size() - unique);
+            JsonUtils.saveReport(report.finish(outcome), report.getStartedAt());
+
+            ConsoleLogger.stop("Crawl " + outcome + ": " + unique + " unique posts, "
+                    + crawler.getSkippedUrls() + " pages skipped, " + crawler.getRecoveredUrls()
+                    + " recovered after retrying, " + crawler.getFailedUrls().size() + " still failing");
+            result.set(exitCode);
+            finished.countDown();
+        }
+
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException ignored) {
+            // La JVM ya se está cerrando (Ctrl+C): el hook está esperando a que terminemos.
+        }
+        return exitCode;
+    }
+
+    @Override
+    public void pageScraped(String url, List<Post> posts, int processed, int totalUrls) {
+        synchronized (pendingPosts) {
+            pendingPosts.addAll(posts);
+            if (++pagesSinceFlush >= flushEvery) {
+                flush();
+                ConsoleLogger.info("Progress: " + (processed * 100) / totalUrls + "% - processed " + processed + "/"
+                        + totalUrls + " URLs, " + flushedPosts + " posts saved");
+            }
+        }
+    }
+
+    // Guarda los posts pendientes, después las URLs escaneadas y por último la frontera: una página
+    // solo queda marcada cuando sus posts ya están en disco (el Crawler la marca después de avisar
+    // al listener, así que la última página se guarda en el flush final).
+    private void flush() {
+        synchronized (pendingPosts) {
+            if (!pendingPosts.isEmpty()) {
+                if (!JsonUtils.toJson(new ArrayList<>(pendingPosts))) {
+                    // Sin los posts en disco no se marca nada: se reintenta en el siguiente flush.
+                    return;
+                }
+                flushedPosts += pendingPosts.size();
+                pendingPosts.clear();
+            }
+            Set<String> scannedUrls = crawler.getScannedUrls();
+            if (scannedUrls != null) {
+                JsonUtils.saveScannedUrls(scannedUrls);
+                crawler.checkpoint();
+            }
+            pagesSinceFlush = 0;
+        }
+    }
+
+    private static String requireValue(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    private static int parsePositive(String value, String option) {
+        try {
+            int number = Integer.parseInt(value.trim());
+            if (number < 1) {
+                throw new NumberFormatException();
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+        }
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage: HeadlessCrawler <board-or-topic-url> [options]");
+        System.out.println("  --board-pages SPEC   board pages to crawl, e.g. 1,2,5-10,* (default: 1)");
+        System.out.println("  --topic-pages SPEC   topic pages to crawl, e.g. 1-3,8-* (default: *)");
+        System.out.println("  --threads N          pages scraped in parallel (default: " + Crawler.DEFAULT_THREADS + ")");
+        System.out.println("  --flush-every N      save posts.json and scanned.json every N pages (default: "
+                + DEFAULT_FLUSH_EVERY + ")");
+        System.out.println("  --include WORDS      only board topics whose title contains one of these (comma-separated)");
+        System.out.println("  --exclude WORDS      skip board topics whose title contains any of these");
+        System.out.println("  --title-regex REGEX  only board topics whose title matches this regex");
+        System.out.println("  --skip-requests      skip request threads (Peticion, Busco, [REQ]...)");
+        System.out.println("  --retry-failed       only scrape the pages that failed in the last run of this URL");
+        System.out.println("  --log-level LEVEL    DEBUG, INFO, WARN, ERROR or OFF (default: INFO)");
+        System.out.println("  --log-file PATH      Also write the log to PATH, rotating at 10 MB (5 files kept)");
+        System.out.println("Exit codes: 0 ok, 1 crawl failed, 2 bad arguments, 3 stopped before finishing");
+    }
+}
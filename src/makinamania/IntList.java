@@ -0,0 +1,109 @@
+package makinamania;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+// Lista de enteros ordenada y creciente usada como posting list del índice.
+public final class IntList {
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this(4);
+    }
+
+    public IntList(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    // Añade un valor; si es mayor que el último se agrega al final sin buscar.
+    public void add(int value) {
+        if (size == 0 || values[size - 1] < value) {
+            ensureCapacity(size + 1);
+            values[size++] = value;
+            return;
+        }
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(values, pos, values, pos + 1, size - pos);
+        values[pos] = value;
+        size++;
+    }
+
+    public boolean remove(int value) {
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    // Deja solo los valores que cumplen keep, sin cambiar su orden.
+    public void retain(IntPredicate keep) {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (keep.test(values[i])) {
+                values[n++] = values[i];
+            }
+        }
+        size = n;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, Math.max(capacity, values.length + (values.length >> 1)));
+        }
+    }
+
+    // Intersección de dos listas ordenadas.
+    public static int[] intersect(int[] a, int aSize, int[] b, int bSize) {
+        int[] out = new int[Math.min(aSize, bSize)];
+        int i = 0, j = 0, n = 0;
+        while (i < aSize && j < bSize) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    public static int[] intersect(int[] a, IntList b) {
+        return intersect(a, a.length, b.values, b.size);
+    }
+}
@@ -1,14 +1,28 @@
 package makinamania;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -17,22 +31,34 @@ public class JsonUtils {
 
     private static final String DEFAULT_JSON_FILE = "resources/posts.json";
     private static final String DEFAULT_SCANNED_URLS_PATH = "resources/scanned.json";
+    private static final String LINK_STATUS_PATH = "resources/link-status.jsonl";
+    // El registro de estados se reescribe sin repetidos al cargarlo si ya tiene tantas líneas de más.
+    private static final int LINK_STATUS_COMPACT_SLACK = 1000;
+    private static final String REPORT_DIRECTORY = "resources";
+    private static final DateTimeFormatter REPORT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
 
     private static final ObjectMapper mapper = new ObjectMapper();
+    // Sin sangrado: una entrada por línea.
+    private static final ObjectMapper LINE_MAPPER = new ObjectMapper();
 
     private static final TypeReference<List<Post>> POST_LIST_TYPE = new TypeReference<List<Post>>() {
     };
     private static final TypeReference<List<String>> STRING_LIST_TYPE = new TypeReference<List<String>>() {
     };
 
+    private static final CrawlMetrics METRICS = CrawlMetrics.global();
+
     private static final Object POSTS_LOCK = new Object();
     private static final Object URLS_LOCK = new Object();
+    private static final Object LINK_STATUS_LOCK = new Object();
 
     static {
         mapper.enable(SerializationFeature.INDENT_OUTPUT);
     }
 
-    public static void toJson(List<Post> newPosts, String filePath) {
+    // Devuelve false si no se ha podido escribir el fichero (el error ya queda en el log).
+    public static boolean toJson(List<Post> newPosts, String filePath) {
+        boolean saved;
         synchronized (POSTS_LOCK) {
             Set<Post> allPosts = new LinkedHashSet<>();
 
@@ -49,12 +75,16 @@ public class JsonUtils {
 
             ConsoleLogger.info("Added " + (afterSize - beforeSize) + " new unique posts.");
 
-            saveAllPostsInternal(allPosts, filePath);
+            saved = saveAllPostsInternal(allPosts, filePath);
+        }
+        if (saved && DEFAULT_JSON_FILE.equals(filePath)) {
+            KnownPosts.global().addAll(newPosts);
         }
+        return saved;
     }
 
-    public static void toJson(List<Post> newPosts) {
-        toJson(newPosts, DEFAULT_JSON_FILE);
+    public static boolean toJson(List<Post> newPosts) {
+        return toJson(newPosts, DEFAULT_JSON_FILE);
     }
 
     public static List<Post> loadPosts(String filePath) throws IOException {
@@ -65,7 +95,19 @@ public class JsonUtils {
             return new ArrayList<>();
         }
 
-        List<Post> posts = mapper.readValue(jsonFile, POST_LIST_TYPE);
+        List<Post> posts;
+        CrawlEvents.Persist event = persistEvent(jsonFile, "load");
+        try (CrawlMetrics.Sample sample = METRICS.start(CrawlMetrics.JSON_LOAD)) {
+            posts = mapper.readValue(jsonFile, POST_LIST_TYPE);
+            sample.success();
+            event.items = posts.size();
+            event.outcome = CrawlEvents.OK;
+        } finally {
+            event.commit();
+        }
+        if (DEFAULT_JSON_FILE.equals(filePath)) {
+            applyLinkStatus(posts);
+        }
         ConsoleLogger.success("Successfully loaded " + posts.size() + " posts from: " + filePath);
         return posts;
     }
@@ -74,34 +116,221 @@ public class JsonUtils {
         return loadPosts(DEFAULT_JSON_FILE);
     }
 
-    public static void saveAllPosts(List<Post> posts, String filePath) {
+    // Devuelve false si no se ha podido escribir el fichero (el error ya queda en el log).
+    public static boolean saveAllPosts(List<Post> posts, String filePath) {
+        boolean saved;
+        synchronized (POSTS_LOCK) {
+            saved = saveAllPostsInternal(posts, filePath);
+        }
+        if (saved && DEFAULT_JSON_FILE.equals(filePath)) {
+            KnownPosts.global().replaceAll(posts);
+        }
+        return saved;
+    }
+
+    // Guarda el estado de los enlaces (linkAlive y lastChecked) de los posts revisados sin tocar
+    // posts.json: se añade una línea por post a link-status.jsonl, así que cada tanda cuesta lo que
+    // ocupa y no bloquea los guardados de posts. loadPosts() aplica la última línea de cada id.
+    public static void updateLinkStatus(List<Post> checkedPosts) {
+        if (checkedPosts.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        try {
+            for (Post post : checkedPosts) {
+                if (post.getId() != null) {
+                    lines.append(LINE_MAPPER.writeValueAsString(new LinkStatus(post))).append('\n');
+                }
+            }
+        } catch (IOException e) {
+            ConsoleLogger.error("Could not update link status: " + e.getMessage());
+            return;
+        }
+
+        File file = new File(LINK_STATUS_PATH);
+        synchronized (LINK_STATUS_LOCK) {
+            ensureDirectoryExists(file);
+            CrawlEvents.Persist event = persistEvent(file, "append");
+            try {
+                Files.writeString(file.toPath(), lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+                event.items = checkedPosts.size();
+                event.outcome = CrawlEvents.OK;
+            } catch (IOException e) {
+                ConsoleLogger.error("Could not update link status: " + e.getMessage());
+            } finally {
+                event.commit();
+            }
+        }
+    }
+
+    // Aplica a los posts el último estado guardado de cada id, si es más reciente que el que traen.
+    private static void applyLinkStatus(List<Post> posts) {
+        Map<String, LinkStatus> statuses = loadLinkStatus();
+        if (statuses.isEmpty()) {
+            return;
+        }
+        for (Post post : posts) {
+            LinkStatus status = post.getId() != null ? statuses.get(post.getId()) : null;
+            if (status != null && status.lastChecked >= post.getLastChecked()) {
+                post.setLinkAlive(status.linkAlive);
+                post.setLastChecked(status.lastChecked);
+            }
+        }
+    }
+
+    private static Map<String, LinkStatus> loadLinkStatus() {
+        File file = new File(LINK_STATUS_PATH);
+        Map<String, LinkStatus> statuses = new HashMap<>();
+        synchronized (LINK_STATUS_LOCK) {
+            if (!file.exists()) {
+                return statuses;
+            }
+            int lines = 0;
+            CrawlEvents.Persist event = persistEvent(file, "load");
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    lines++;
+                    try {
+                        LinkStatus status = LINE_MAPPER.readValue(line, LinkStatus.class);
+                        statuses.put(status.id, status);
+                    } catch (IOException e) {
+                        // Línea cortada por un cierre a mitad de escritura: se ignora.
+                    }
+                }
+                event.items = statuses.size();
+                event.outcome = CrawlEvents.OK;
+            } catch (IOException e) {
+                ConsoleLogger.warn("Could not read link status: " + e.getMessage());
+                return statuses;
+            } finally {
+                event.commit();
+            }
+
+            if (lines - statuses.size() > LINK_STATUS_COMPACT_SLACK) {
+                compactLinkStatus(statuses.values(), file);
+            }
+        }
+        return statuses;
+    }
+
+    // Reescribe el registro con una línea por id, en un temporal que luego se mueve encima.
+    private static void compactLinkStatus(Collection<LinkStatus> statuses, File file) {
+        File tmpFile = new File(file.getPath() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmpFile.toPath(), StandardCharsets.UTF_8)) {
+            for (LinkStatus status : statuses) {
+                writer.write(LINE_MAPPER.writeValueAsString(status));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            ConsoleLogger.warn("Could not compact link status: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            ConsoleLogger.warn("Could not compact link status: " + e.getMessage());
+        }
+    }
+
+    // Una línea de link-status.jsonl.
+    static final class LinkStatus {
+        public String id;
+        public boolean linkAlive;
+        public long lastChecked;
+
+        public LinkStatus() {
+        }
+
+        LinkStatus(Post post) {
+            id = post.getId();
+            linkAlive = post.isLinkAlive();
+            lastChecked = post.getLastChecked();
+        }
+    }
+
+    // Carga en known los números de mensaje de posts.json leyendo solo el campo id de cada post,
+    // sin construir los Post.
+    static void loadKnownPostIds(KnownPosts known) {
+        File jsonFile = new File(DEFAULT_JSON_FILE);
+        if (!jsonFile.exists()) {
+            return;
+        }
+
         synchronized (POSTS_LOCK) {
-            saveAllPostsInternal(posts, filePath);
+            CrawlEvents.Persist event = persistEvent(jsonFile, "load");
+            try (JsonParser parser = mapper.getFactory().createParser(jsonFile)) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("expected an array of posts");
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.getCurrentName();
+                        JsonToken value = parser.nextToken();
+                        if ("id".equals(field) && value == JsonToken.VALUE_STRING) {
+                            known.add(parser.getText());
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                event.items = known.size();
+                event.outcome = CrawlEvents.OK;
+                ConsoleLogger.info("Loaded " + known.size() + " known post ids from: " + DEFAULT_JSON_FILE);
+            } catch (IOException e) {
+                ConsoleLogger.warn("Could not read known post ids: " + e.getMessage());
+            } finally {
+                event.commit();
+            }
         }
     }
 
-    public static void saveAllPosts(List<Post> posts) {
-        saveAllPosts(posts, DEFAULT_JSON_FILE);
+    public static boolean saveAllPosts(List<Post> posts) {
+        return saveAllPosts(posts, DEFAULT_JSON_FILE);
     }
 
-    private static void saveAllPostsInternal(Object data, String filePath) {
+    private static boolean saveAllPostsInternal(Object data, String filePath) {
         File jsonFile = new File(filePath);
         ensureDirectoryExists(jsonFile);
 
-        try {
+        CrawlEvents.Persist event = persistEvent(jsonFile, "save");
+        try (CrawlMetrics.Sample sample = METRICS.start(CrawlMetrics.JSON_SAVE)) {
             mapper.writeValue(jsonFile, data);
+            sample.success();
 
             int size = data instanceof java.util.Collection ? ((java.util.Collection<?>) data).size() : 0;
+            event.items = size;
+            event.bytes = jsonFile.length();
+            event.outcome = CrawlEvents.OK;
             ConsoleLogger.success("Successfully saved " + size + " items to: " + filePath);
+            return true;
 
         } catch (IOException e) {
             ConsoleLogger.error("Error writing JSON file: " + e.getMessage());
+            return false;
+        } finally {
+            event.commit();
         }
     }
 
+    // Une las URLs con las que ya haya en disco, para que varios scrapings a la vez no se pisen.
     public static void saveScannedUrls(Set<String> scannedUrls, String filePath) {
         synchronized (URLS_LOCK) {
-            saveAllPostsInternal(scannedUrls, filePath);
+            Set<String> merged = new LinkedHashSet<>();
+            File jsonFile = new File(filePath);
+            if (jsonFile.exists()) {
+                try {
+                    merged.addAll(mapper.readValue(jsonFile, STRING_LIST_TYPE));
+                } catch (IOException e) {
+                    ConsoleLogger.warn("Could not merge existing scanned URLs: " + e.getMessage());
+                }
+            }
+            merged.addAll(scannedUrls);
+            saveAllPostsInternal(merged, filePath);
         }
     }
 
@@ -117,8 +346,12 @@ public class JsonUtils {
             return ConcurrentHashMap.newKeySet();
         }
 
-        try {
+        CrawlEvents.Persist event = persistEvent(jsonFile, "load");
+        try (CrawlMetrics.Sample sample = METRICS.start(CrawlMetrics.JSON_LOAD)) {
             List<String> urls = mapper.readValue(jsonFile, STRING_LIST_TYPE);
+            sample.success();
+            event.items = urls.size();
+            event.outcome = CrawlEvents.OK;
 
             Set<String> urlSet = ConcurrentHashMap.newKeySet(urls.size());
             urlSet.addAll(urls);
@@ -128,6 +361,8 @@ public class JsonUtils {
         } catch (IOException e) {
             ConsoleLogger.error("✗ Error loading scanned URLs: " + e.getMessage());
             return ConcurrentHashMap.newKeySet();
+        } finally {
+            event.commit();
         }
     }
 
@@ -141,8 +376,86 @@ public class JsonUtils {
                 .collect(Collectors.toList());
     }
 
-    public static void addUrlAndSave(Set<String> processedUrls, String url) {
-        processedUrls.add(url);
+    // Guarda el informe de una ejecución como resources/crawl-report-<fecha>.json y devuelve la ruta.
+    public static String saveReport(Map<String, Object> report, LocalDateTime startedAt) {
+        return saveReport(report, startedAt, null);
+    }
+
+    // Variante con sufijo en el nombre, para informes de varios trabajos que empiezan a la vez.
+    public static String saveReport(Map<String, Object> report, LocalDateTime startedAt, String suffix) {
+        String name = "crawl-report-" + startedAt.format(REPORT_TIMESTAMP) + (suffix != null ? "-" + suffix : "");
+        File reportFile = new File(REPORT_DIRECTORY, name + ".json");
+        ensureDirectoryExists(reportFile);
+
+        try {
+            mapper.writeValue(reportFile, report);
+            ConsoleLogger.success("Crawl report saved to: " + reportFile.getPath());
+            return reportFile.getPath();
+        } catch (IOException e) {
+            ConsoleLogger.error("Error writing crawl report: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Lee la frontera de un crawl interrumpido; null si no existe o no se puede leer.
+    static CrawlFrontier.Snapshot loadFrontier(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        CrawlEvents.Persist event = persistEvent(file, "load");
+        try {
+            CrawlFrontier.Snapshot snapshot = mapper.readValue(file, CrawlFrontier.Snapshot.class);
+            event.items = snapshot.pages.size();
+            event.outcome = CrawlEvents.OK;
+            return snapshot;
+        } catch (IOException e) {
+            ConsoleLogger.warn("Could not read crawl frontier " + file.getPath() + ": " + e.getMessage());
+            return null;
+        } finally {
+            event.commit();
+        }
+    }
+
+    // Escribe la frontera en un temporal y lo mueve encima, para no dejar nunca un fichero a medias.
+    static void saveFrontier(CrawlFrontier.Snapshot snapshot, File file) {
+        ensureDirectoryExists(file);
+        File tmpFile = new File(file.getPath() + ".tmp");
+
+        CrawlEvents.Persist event = persistEvent(file, "save");
+        try {
+            mapper.writeValue(tmpFile, snapshot);
+            try {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            event.items = snapshot.pages.size();
+            event.bytes = file.length();
+            event.outcome = CrawlEvents.OK;
+        } catch (IOException e) {
+            ConsoleLogger.error("Error writing crawl frontier: " + e.getMessage());
+        } finally {
+            event.commit();
+        }
+    }
+
+    static void deleteFrontier(File file) {
+        if (file.exists() && !file.delete()) {
+            ConsoleLogger.warn("Could not delete crawl frontier: " + file.getPath());
+        }
+    }
+
+    // Evento JFR ya iniciado para una lectura o escritura de fichero.
+    private static CrawlEvents.Persist persistEvent(File file, String operation) {
+        CrawlEvents.Persist event = new CrawlEvents.Persist();
+        event.begin();
+        event.file = file.getPath();
+        event.operation = operation;
+        if ("load".equals(operation)) {
+            event.bytes = file.length();
+        }
+        return event;
     }
 
     private static void ensureDirectoryExists(File file) {
@@ -0,0 +1,120 @@
+package makinamania;
+
+import java.util.Collection;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Posts que ya están guardados en posts.json, por su número de mensaje (el msgNNN del id).
+// Es una tabla abierta de longs, sin un objeto por entrada, para que quepan cientos de miles
+// de posts en poco espacio. Al scrapear, un post conocido se salta sin comprobar sus enlaces
+// ni buscar sus discos en Discogs.
+public final class KnownPosts {
+    private static final Pattern MESSAGE_NUMBER = Pattern.compile("msg(\\d+)");
+    private static final long EMPTY = 0;
+
+    private static KnownPosts global;
+
+    private long[] table;
+    private int size;
+
+    public KnownPosts() {
+        this(16);
+    }
+
+    public KnownPosts(int expected) {
+        table = new long[tableSizeFor(expected)];
+    }
+
+    // Conjunto compartido, cargado de posts.json la primera vez que se usa.
+    public static synchronized KnownPosts global() {
+        if (global == null) {
+            global = new KnownPosts();
+            JsonUtils.loadKnownPostIds(global);
+        }
+        return global;
+    }
+
+    // Número de mensaje de un id de post, o -1 si el id no lo trae.
+    static long messageNumber(String postId) {
+        if (postId == null) {
+            return -1;
+        }
+        Matcher matcher = MESSAGE_NUMBER.matcher(postId);
+        if (!matcher.find()) {
+            return -1;
+        }
+        try {
+            long number = Long.parseLong(matcher.group(1));
+            return number > 0 ? number : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean contains(String postId) {
+        long number = messageNumber(postId);
+        return number > 0 && table[slot(number)] == number;
+    }
+
+    // Añade un id; los que no tienen número de mensaje se ignoran y se seguirán comprobando.
+    public synchronized void add(String postId) {
+        long number = messageNumber(postId);
+        if (number <= 0) {
+            return;
+        }
+        int slot = slot(number);
+        if (table[slot] == number) {
+            return;
+        }
+        table[slot] = number;
+        size++;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+    }
+
+    public synchronized void addAll(Collection<Post> posts) {
+        for (Post post : posts) {
+            add(post.getId());
+        }
+    }
+
+    // Sustituye el contenido, p. ej. cuando se reescribe posts.json tras borrar posts.
+    public synchronized void replaceAll(Collection<Post> posts) {
+        table = new long[tableSizeFor(posts.size())];
+        size = 0;
+        addAll(posts);
+    }
+
+    // Posición del número en la tabla, o la del hueco libre donde iría.
+    private int slot(long number) {
+        int mask = table.length - 1;
+        int slot = (int) ((number * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (table[slot] != EMPTY && table[slot] != number) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        table = new long[capacity];
+        for (long number : old) {
+            if (number != EMPTY) {
+                table[slot(number)] = number;
+            }
+        }
+    }
+
+    private static int tableSizeFor(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,240 @@
+package makinamania;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+// Revisión en segundo plano de los enlaces de los posts guardados, para saber cuáles se han caído.
+// Cada hoster que Checker comprueba de verdad tiene su propio hilo y su propio ritmo (una petición
+// cada HOSTER_INTERVAL_MS), así que un hoster lento o estricto no frena a los demás. Dentro de cada
+// hoster van primero los posts nunca comprobados y después los que llevan más tiempo sin comprobar;
+// un post no se vuelve a mirar hasta pasados RECHECK_AFTER_MS. El resultado (linkAlive y
+// lastChecked) se guarda por tandas en link-status.jsonl (ver JsonUtils.updateLinkStatus), así que parar
+// o cerrar pierde como mucho la última.
+// Si no se ha podido saber (error de red, 429/5xx) el post se deja como estaba y el hilo de ese
+// hoster espera cada vez más antes de seguir, para no marcar como muertos enlaces que no lo están.
+public class LinkRevalidator {
+    public static final String CHECKED = "revalidate.checked";
+    public static final String DEAD = "revalidate.dead";
+    public static final String DIED = "revalidate.died";
+    public static final String UNKNOWN = "revalidate.unknown";
+
+    // Los demás hosters Checker los da por buenos sin hacer ninguna petición: no hay nada que revisar.
+    private static final Map<String, Long> HOSTER_INTERVAL_MS = new LinkedHashMap<>();
+    private static final long RECHECK_AFTER_MS = TimeUnit.DAYS.toMillis(7);
+    private static final long IDLE_WAIT_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final long SAVE_INTERVAL_MS = 30000;
+    private static final int SAVE_BATCH = 50;
+    // Pausa del hilo cuando varios posts seguidos salen UNKNOWN (el hoster entero falla) y espera de
+    // cada post UNKNOWN antes de volver a intentarlo; mientras, pasan por delante los demás.
+    private static final RetryPolicy LANE_BACKOFF = new RetryPolicy(Integer.MAX_VALUE, 5000,
+            TimeUnit.MINUTES.toMillis(1));
+    private static final RetryPolicy POST_RETRY = new RetryPolicy(Integer.MAX_VALUE, TimeUnit.MINUTES.toMillis(1),
+            TimeUnit.HOURS.toMillis(1));
+
+    static {
+        HOSTER_INTERVAL_MS.put("mega.nz", 1000L);
+        HOSTER_INTERVAL_MS.put("mediafire", 2000L);
+        HOSTER_INTERVAL_MS.put("terabox", 3000L);
+        HOSTER_INTERVAL_MS.put("rapidgator", 3000L);
+    }
+
+    private final Supplier<List<Post>> source;
+    private final CrawlMetrics metrics;
+    private final List<Post> unsaved = new ArrayList<>();
+    private long lastSave = System.currentTimeMillis();
+    private CancellationToken cancellation;
+    private volatile Consumer<Post> updateListener = post -> {
+    };
+
+    // source da los posts a revisar (p. ej. los de PostManager); se vuelve a pedir en cada vuelta.
+    public LinkRevalidator(Supplier<List<Post>> source, CrawlMetrics metrics) {
+        this.source = source;
+        this.metrics = metrics;
+    }
+
+    // Se llama, desde el hilo del hoster, cada vez que cambian linkAlive/lastChecked de un post.
+    public void setUpdateListener(Consumer<Post> updateListener) {
+        this.updateListener = updateListener;
+    }
+
+    public synchronized boolean isRunning() {
+        return cancellation != null;
+    }
+
+    // Arranca un hilo por hoster; no bloquea.
+    public synchronized void start() {
+        if (cancellation != null) {
+            return;
+        }
+        CancellationToken token = new CancellationToken();
+        cancellation = token;
+        ExecutorService lanes = Executors.newFixedThreadPool(HOSTER_INTERVAL_MS.size(), runnable -> {
+            Thread thread = new Thread(runnable, "link-revalidate");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        HOSTER_INTERVAL_MS.forEach((hoster, interval) -> lanes.execute(() -> runLane(hoster, interval, token)));
+        lanes.shutdown();
+        ConsoleLogger.info("Link revalidation started");
+    }
+
+    // Para los hilos abortando las comprobaciones en curso; lo ya revisado se guarda al salir.
+    public synchronized void stop() {
+        if (cancellation == null) {
+            return;
+        }
+        cancellation.cancel();
+        cancellation = null;
+        ConsoleLogger.info("Link revalidation stopped");
+    }
+
+    private void runLane(String hoster, long interval, CancellationToken token) {
+        AtomicLong pending = new AtomicLong();
+        String gauge = "revalidate." + hoster + ".pending";
+        LongSupplier pendingGauge = pending::get;
+        metrics.registerGauge(gauge, pendingGauge);
+        // Intentos UNKNOWN seguidos de cada post y cuándo se puede volver a intentar; solo en memoria,
+        // porque lastChecked tiene que seguir siendo la última comprobación con respuesta.
+        Map<Post, Integer> unknownAttempts = new IdentityHashMap<>();
+        Map<Post, Long> retryAt = new IdentityHashMap<>();
+        int unknownStreak = 0;
+        try {
+            while (!token.isCancelled()) {
+                List<Post> due = duePosts(hoster, retryAt);
+                pending.set(due.size());
+                if (due.isEmpty()) {
+                    flush(true);
+                    if (!token.sleep(idleWait(retryAt))) {
+                        break;
+                    }
+                    continue;
+                }
+                for (Post post : due) {
+                    Checker.LinkStatus status = revalidate(post, hoster, interval, token);
+                    if (token.isCancelled()) {
+                        break;
+                    }
+                    pending.decrementAndGet();
+                    if (status == Checker.LinkStatus.UNKNOWN) {
+                        int attempts = unknownAttempts.merge(post, 1, Integer::sum);
+                        retryAt.put(post, System.currentTimeMillis() + POST_RETRY.delayMs(attempts));
+                        unknownStreak++;
+                        if (!token.sleep(LANE_BACKOFF.delayMs(unknownStreak))) {
+                            break;
+                        }
+                    } else {
+                        unknownAttempts.remove(post);
+                        retryAt.remove(post);
+                        unknownStreak = 0;
+                        flush(false);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            ConsoleLogger.error("Link revalidation for " + hoster + " failed: " + e.getMessage());
+        } finally {
+            metrics.unregisterGauge(gauge, pendingGauge);
+            flush(true);
+        }
+    }
+
+    // Posts de este hoster que toca revisar, de más a menos tiempo sin comprobar (0 = nunca). Los que
+    // han salido UNKNOWN no vuelven hasta su retryAt, para no bloquear a los que van detrás.
+    private List<Post> duePosts(String hoster, Map<Post, Long> retryAt) {
+        long now = System.currentTimeMillis();
+        retryAt.values().removeIf(at -> at <= now);
+        List<Post> due = new ArrayList<>();
+        for (Post post : source.get()) {
+            if (post.getHoster() != null && hoster.equals(post.getHoster().toLowerCase())
+                    && post.getDownloadLinks() != null && !post.getDownloadLinks().isEmpty()
+                    && now - post.getLastChecked() >= RECHECK_AFTER_MS && !retryAt.containsKey(post)) {
+                due.add(post);
+            }
+        }
+        due.sort(Comparator.comparingLong(Post::getLastChecked));
+        return due;
+    }
+
+    // Sin nada pendiente se espera IDLE_WAIT_MS, o menos si antes toca reintentar algún post UNKNOWN.
+    private static long idleWait(Map<Post, Long> retryAt) {
+        long now = System.currentTimeMillis();
+        long wait = IDLE_WAIT_MS;
+        for (long at : retryAt.values()) {
+            wait = Math.min(wait, Math.max(1, at - now));
+        }
+        return wait;
+    }
+
+    // Comprueba los enlaces del post hasta dar con uno vivo, respetando el ritmo del hoster.
+    // Muerto solo si todos han contestado que no existen; si alguno no se ha podido comprobar, o se
+    // ha parado a mitad, devuelve UNKNOWN y el post queda como estaba.
+    private Checker.LinkStatus revalidate(Post post, String hoster, long interval, CancellationToken token)
+            throws InterruptedException {
+        boolean alive = false;
+        boolean unknown = false;
+        for (String link : post.getDownloadLinks()) {
+            if (!token.sleep(interval)) {
+                return Checker.LinkStatus.UNKNOWN;
+            }
+            Checker.LinkStatus status = Checker.checkLinkStatus(link, hoster, metrics, token);
+            if (token.isCancelled()) {
+                return Checker.LinkStatus.UNKNOWN;
+            }
+            if (status == Checker.LinkStatus.ALIVE) {
+                alive = true;
+                break;
+            }
+            unknown |= status == Checker.LinkStatus.UNKNOWN;
+        }
+        if (!alive && unknown) {
+            metrics.increment(UNKNOWN);
+            return Checker.LinkStatus.UNKNOWN;
+        }
+
+        boolean wasAlive = post.isLinkAlive();
+        post.setLinkAlive(alive);
+        post.setLastChecked(System.currentTimeMillis());
+        metrics.increment(CHECKED);
+        if (!alive) {
+            metrics.increment(DEAD);
+            if (wasAlive) {
+                metrics.increment(DIED);
+                ConsoleLogger.warn("Links are dead now: " + post.getId());
+            }
+        }
+        synchronized (unsaved) {
+            unsaved.add(post);
+        }
+        updateListener.accept(post);
+        return alive ? Checker.LinkStatus.ALIVE : Checker.LinkStatus.DEAD;
+    }
+
+    // Guarda lo revisado cuando hay una tanda o ha pasado SAVE_INTERVAL_MS; con force, siempre.
+    private void flush(boolean force) {
+        List<Post> batch;
+        synchronized (unsaved) {
+            long now = System.currentTimeMillis();
+            if (unsaved.isEmpty() || (!force && unsaved.size() < SAVE_BATCH && now - lastSave < SAVE_INTERVAL_MS)) {
+                return;
+            }
+            batch = new ArrayList<>(unsaved);
+            unsaved.clear();
+            lastSave = now;
+        }
+        JsonUtils.updateLinkStatus(batch);
+    }
+}
@@ -1,7 +1,9 @@
 package makinamania;
 
 import makinamania.ui.DataPanel;
+import makinamania.ui.JobsPanel;
 import makinamania.ui.ScrapingPanel;
+import makinamania.ui.StatsPanel;
 import com.formdev.flatlaf.FlatDarkLaf;
 import com.formdev.flatlaf.FlatLightLaf;
 import com.formdev.flatlaf.FlatLaf;
@@ -13,10 +15,13 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 
 public class MainApp extends JFrame {
+    private static final long serialVersionUID = 1L;
+
     private JTabbedPane tabbedPane;
     private PostManager postManager;
     private DataPanel dataPanel;
     private ScrapingPanel scrapingPanel;
+    private CrawlScheduler crawlScheduler;
 
     public MainApp() {
         initializeUI();
@@ -36,11 +41,15 @@ public class MainApp extends JFrame {
 
         dataPanel.setPostManager(postManager);
 
+        crawlScheduler = new CrawlScheduler(Crawler.DEFAULT_THREADS);
+
         tabbedPane = new JTabbedPane();
-        scrapingPanel = new ScrapingPanel(postManager, tabbedPane);
+        scrapingPanel = new ScrapingPanel(postManager, tabbedPane, crawlScheduler);
 
         tabbedPane.addTab("Scraping", scrapingPanel);
         tabbedPane.addTab("Data", dataPanel);
+        tabbedPane.addTab("Jobs", new JobsPanel(crawlScheduler, postManager));
+        tabbedPane.addTab("Stats", new StatsPanel(CrawlMetrics.global()));
 
         add(tabbedPane, BorderLayout.CENTER);
 
@@ -66,7 +75,7 @@ public class MainApp extends JFrame {
                     Desktop.getDesktop().browse(java.net.URI.create(
                             "https://www.makinamania.net/index.php?action=profile;u=231357"));
                 } catch (Exception ex) {
-                    ex.printStackTrace();
+                    ConsoleLogger.error("Could not open profile link", ex);
                 }
             }
         });
@@ -88,7 +97,7 @@ public class MainApp extends JFrame {
                 }
                 FlatLaf.updateUI();
             } catch (Exception ex) {
-                ex.printStackTrace();
+                ConsoleLogger.error("Could not switch theme", ex);
             }
         });
 
@@ -1,63 +1,149 @@
 package makinamania;
 
-import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class MakinamaniaScraper {
 
-    private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
-    private static final int TIMEOUT_MS = 15000;
-
     private static final Set<String> HOSTERS = Set.of(
             "swisstransfer", "mega.nz", "terabox", "mediafire", "rapidgator",
             "drive", "dropbox", "wetransfer");
 
-    private static final Map<String, String> DISCOGS_CACHE = new ConcurrentHashMap<>();
+    // Mensajes por página de topic en el foro (SMF): marca el desplazamiento de cada página.
+    static final int TOPIC_POSTS_PER_PAGE = 15;
 
-    private static volatile boolean stopRequested = false;
+    private static final List<String> SPANISH_MONTHS = List.of("enero", "febrero", "marzo", "abril", "mayo", "junio",
+            "julio", "agosto", "septiembre", "octubre", "noviembre", "diciembre");
+    private static final Pattern SPANISH_DATE = Pattern.compile("(\\d{1,2}) de ([a-z]+) de (\\d{4})",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern ENGLISH_DATE = Pattern.compile("([A-Za-z]{3,9})\\.? (\\d{1,2}), (\\d{4})");
+    private static final Pattern HOSTER_WORD = Pattern.compile("(?i)\\b(" + HOSTERS.stream()
+            .map(hoster -> Pattern.quote(hoster.replace(".nz", ""))).collect(Collectors.joining("|")) + ")\\b");
+    private static final Pattern NUMBER = Pattern.compile("\\d[\\d.,]*");
 
-    // Representa la información básica de un topic.
+    // Representa la información básica de un topic, con los datos de su fila en el listado
+    // del board cuando se conocen (-1 / null si no).
     public static class TopicInfo {
         public final String url;
         public final String title;
+        public final int replies;
+        public final int views;
+        public final LocalDate lastPost;
+        public final int pages;
 
         public TopicInfo(String url, String title) {
+            this(url, title, -1, -1, null, -1);
+        }
+
+        public TopicInfo(String url, String title, int replies, int views, LocalDate lastPost, int pages) {
             this.url = url;
             this.title = title != null ? title.trim() : "";
+            this.replies = replies;
+            this.views = views;
+            this.lastPost = lastPost;
+            this.pages = pages;
         }
     }
 
-    // Descarga una página genérica y devuelve el documento.
-    private static Document fetchPage(String url, int timeoutMs) throws IOException {
-        String cleanUrl = normalizeId(url);
-        return Jsoup.connect(cleanUrl)
-                .userAgent(USER_AGENT)
-                .timeout(timeoutMs)
-                .get();
+    // Determina si una URL es de topic.
+    public static boolean isTopicUrl(String url) {
+        return url.startsWith("https://www.makinamania.net/index.php/topic") &&
+                url.matches("^https://www\\.makinamania\\.net/index\\.php/topic,\\d+(\\.\\d+)?\\.html.*$");
+    }
+
+    // Determina si una URL es de board.
+    public static boolean isBoardUrl(String url) {
+        return url.startsWith("https://www.makinamania.net/index.php/board") &&
+                url.matches("^https://www\\.makinamania\\.net/index\\.php/board,\\d+\\.\\d+.*$");
     }
 
     // Obtiene el número total de páginas de un board.
     public static int getBoardTotalPages(String boardUrl) throws IOException {
-        String cleanBoardUrl = normalizeId(boardUrl);
-        Document doc = fetchBoardPage(cleanBoardUrl);
-        return detectBoardTotalPages(doc);
+        return ScraperSession.defaultSession().getBoardTotalPages(boardUrl);
+    }
+
+    // Obtiene los topics raíz de un board para páginas concretas.
+    public static List<String> getTopicsForBoardPages(String boardUrl, String boardPagesSpec) throws IOException {
+        return ScraperSession.defaultSession().getTopicsForBoardPages(boardUrl, boardPagesSpec);
+    }
+
+    // Genera las URLs de páginas de topic para un board.
+    public static List<String> getTopicPageUrls(String boardUrl, String boardPagesSpec, String topicPagesSpec)
+            throws IOException {
+        return ScraperSession.defaultSession().getTopicPageUrls(boardUrl, boardPagesSpec, topicPagesSpec);
+    }
+
+    // Obtiene los topics de un board organizados por página.
+    public static List<List<TopicInfo>> getTopicsByPageForBoard(String boardUrl, String boardPagesSpec) throws IOException {
+        return ScraperSession.defaultSession().getTopicsByPageForBoard(boardUrl, boardPagesSpec);
+    }
+
+    // Obtiene el número total de páginas de un topic.
+    public static int getTopicTotalPages(String topicUrl) throws IOException {
+        return ScraperSession.defaultSession().getTopicTotalPages(topicUrl);
+    }
+
+    // Alias de compatibilidad para obtener el total de páginas de un topic.
+    public static int getTotalPages(String topicUrl) throws IOException {
+        return getTopicTotalPages(topicUrl);
+    }
+
+    // Genera las URLs de páginas de un topic según un patrón.
+    public static List<String> generateTopicPageUrls(String topicUrl, String input) throws IOException {
+        return ScraperSession.defaultSession().generateTopicPageUrls(topicUrl, input);
+    }
+
+    // Alias de compatibilidad para generar URLs de topic.
+    public static List<String> genUrls(String topicUrl, String input) throws IOException {
+        return generateTopicPageUrls(topicUrl, input);
+    }
+
+    // Marca el scraping para que se detenga.
+    public static void stop() {
+        ScraperSession.defaultSession().stop();
+    }
+
+    // Reinicia el estado de parada del scraping.
+    public static void reset() {
+        ScraperSession.defaultSession().reset();
+    }
+
+    // Indica si se ha solicitado detener el scraping.
+    public static boolean stopRequested() {
+        return ScraperSession.defaultSession().stopRequested();
+    }
+
+    // Scrapea los posts válidos de una página del foro.
+    public static List<Post> scrapePosts(String url) {
+        return ScraperSession.defaultSession().scrapePosts(url);
     }
 
-    // Descarga una página de board.
-    private static Document fetchBoardPage(String boardUrl) throws IOException {
-        return fetchPage(boardUrl, TIMEOUT_MS);
+    // Convierte un elemento HTML en un objeto Post.
+    public static Post parsePost(Element post) {
+        return ScraperSession.defaultSession().parsePost(post);
+    }
+
+    // Indica si un post añade contenido nuevo.
+    public static boolean addsNewContent(Post post) {
+        return ScraperSession.defaultSession().addsNewContent(post);
+    }
+
+    // Extrae títulos de álbum desde enlaces de Discogs.
+    public static List<String> extractAlbumTitles(List<String> discogsLinks) {
+        return ScraperSession.defaultSession().extractAlbumTitles(discogsLinks);
     }
 
     // Detecta el número máximo de página dentro de un board.
-    private static int detectBoardTotalPages(Document doc) {
+    static int detectBoardTotalPages(Document doc) {
         Elements navPages = doc.select("a.navPages");
         int maxPage = 1;
 
@@ -75,28 +161,22 @@ public class MakinamaniaScraper {
     }
 
     // Construye la URL de una página concreta de un board.
-    private static String buildBoardPageUrl(String baseUrl, int pageNumber) {
+    static String buildBoardPageUrl(String baseUrl, int pageNumber) {
         int offset = (pageNumber - 1) * 40;
         return baseUrl.replaceFirst("\\.\\d+", "." + offset);
     }
 
     // Extrae URLs de topics desde una página de board.
-    private static List<String> extractTopicsFromBoard(Document doc) {
+    static List<String> extractTopicsFromBoard(Document doc) {
         List<String> topics = new ArrayList<>();
-        Elements rows = doc.select("td.windowbg");
-
-        for (Element row : rows) {
-            Element topicLink = row.selectFirst("a");
-            if (topicLink != null) {
-                String href = topicLink.absUrl("href");
-                topics.add(normalizeId(href));
-            }
+        for (TopicInfo topic : extractTopicsWithTitlesFromBoard(doc)) {
+            topics.add(normalizeId(topic.url));
         }
-
         return topics;
     }
 
-    // Extrae topics con títulos desde una página de board.
+    // Extrae topics con títulos desde una página de board, junto con respuestas, visitas y
+    // fecha del último mensaje de su fila.
     public static List<TopicInfo> extractTopicsWithTitlesFromBoard(Document doc) {
         List<TopicInfo> topics = new ArrayList<>();
         Elements rows = doc.select("td.windowbg");
@@ -106,65 +186,111 @@ public class MakinamaniaScraper {
             if (topicLink != null) {
                 String href = topicLink.absUrl("href");
                 String title = topicLink.text();
-                topics.add(new TopicInfo(href, title));
+                topics.add(parseTopicRow(row, href, title));
             }
         }
 
         return topics;
     }
 
-    // Resuelve qué páginas de un board se deben usar según el patrón.
-    private static List<Integer> resolveBoardPages(String boardUrl, String boardPagesSpec) throws IOException {
-        int totalPages = getBoardTotalPages(boardUrl);
-        return parsePageSpec(boardPagesSpec, totalPages);
-    }
-
-    // Obtiene los topics raíz de un board para páginas concretas.
-    public static List<String> getTopicsForBoardPages(String boardUrl, String boardPagesSpec) throws IOException {
-        String cleanBoardUrl = normalizeId(boardUrl);
-        List<Integer> pages = resolveBoardPages(cleanBoardUrl, boardPagesSpec);
-
-        LinkedHashSet<String> topicSet = new LinkedHashSet<>();
-        for (int page : pages) {
-            String pageUrl = buildBoardPageUrl(cleanBoardUrl, page);
-            Document pageDoc = fetchBoardPage(pageUrl);
-            topicSet.addAll(extractTopicsFromBoard(pageDoc));
+    // Lee las celdas que siguen a la del título: las dos primeras cifras son respuestas y visitas
+    // (en celdas sueltas o juntas en una celda "stats") y la última celda trae el último mensaje.
+    // El número de páginas sale de los enlaces de paginación de la celda del título o, si no hay,
+    // de las respuestas; si tampoco se conocen queda en -1.
+    static TopicInfo parseTopicRow(Element subjectCell, String href, String title) {
+        int linkedPages = parseRowPageLinks(subjectCell);
+        Element row = subjectCell.parent();
+        if (row == null || !"tr".equals(row.tagName())) {
+            return new TopicInfo(href, title, -1, -1, null, linkedPages);
+        }
+
+        List<Integer> numbers = new ArrayList<>();
+        Elements cells = row.children();
+        int subjectIndex = subjectCell.elementSiblingIndex();
+        for (int i = subjectIndex + 1; i < cells.size() && numbers.size() < 2; i++) {
+            Element cell = cells.get(i);
+            String text = cell.text().trim();
+            if (text.matches("[\\d.,]+") || cell.hasClass("stats")) {
+                Matcher matcher = NUMBER.matcher(text);
+                while (matcher.find() && numbers.size() < 2) {
+                    numbers.add(parseCount(matcher.group()));
+                }
+            }
         }
 
-        return new ArrayList<>(topicSet);
+        LocalDate lastPost = cells.size() > subjectIndex + 1 ? parseBoardDate(cells.last().text()) : null;
+        int replies = numbers.size() > 0 ? numbers.get(0) : -1;
+        int pages = linkedPages > 0 ? linkedPages : replies >= 0 ? replies / TOPIC_POSTS_PER_PAGE + 1 : -1;
+        return new TopicInfo(href, title, replies, numbers.size() > 1 ? numbers.get(1) : -1, lastPost, pages);
     }
 
-    // Genera las URLs de páginas de topic para un board.
-    public static List<String> getTopicPageUrls(String boardUrl, String boardPagesSpec, String topicPagesSpec)
-            throws IOException {
-        List<String> topicRoots = getTopicsForBoardPages(boardUrl, boardPagesSpec);
-        List<String> topicPageUrls = new ArrayList<>();
-
-        for (String topicUrl : topicRoots) {
-            topicPageUrls.addAll(generateTopicPageUrls(topicUrl, topicPagesSpec));
+    // Mayor número de los enlaces de página que el listado pone junto al título de un topic largo.
+    private static int parseRowPageLinks(Element subjectCell) {
+        int maxPage = -1;
+        Element titleLink = subjectCell.selectFirst("a");
+        for (Element link : subjectCell.select("a.navPages, a[href*=/topic,]")) {
+            if (link == titleLink) {
+                continue;
+            }
+            String text = link.text().trim();
+            if (text.matches("\\d+")) {
+                maxPage = Math.max(maxPage, Integer.parseInt(text));
+            }
         }
+        return maxPage;
+    }
 
-        return topicPageUrls;
+    private static int parseCount(String text) {
+        try {
+            return Integer.parseInt(text.replaceAll("[.,]", ""));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
     }
 
-    // Obtiene los topics de un board organizados por página.
-    public static List<List<TopicInfo>> getTopicsByPageForBoard(String boardUrl, String boardPagesSpec) throws IOException {
-        String cleanBoardUrl = normalizeId(boardUrl);
-        List<Integer> pages = resolveBoardPages(cleanBoardUrl, boardPagesSpec);
-
-        List<List<TopicInfo>> topicsByPage = new ArrayList<>();
-        for (int page : pages) {
-            String pageUrl = buildBoardPageUrl(cleanBoardUrl, page);
-            Document pageDoc = fetchBoardPage(pageUrl);
-            List<TopicInfo> pageTopics = extractTopicsWithTitlesFromBoard(pageDoc);
-            topicsByPage.add(pageTopics);
+    // Fecha de un listado del foro: "14 de Marzo de 2011, 18:22:10", "March 14, 2011", "Hoy" o "Ayer".
+    static LocalDate parseBoardDate(String text) {
+        if (text == null) {
+            return null;
+        }
+        String lower = text.toLowerCase();
+        if (lower.contains("hoy") || lower.contains("today")) {
+            return LocalDate.now();
         }
+        if (lower.contains("ayer") || lower.contains("yesterday")) {
+            return LocalDate.now().minusDays(1);
+        }
+
+        try {
+            Matcher spanish = SPANISH_DATE.matcher(lower);
+            if (spanish.find()) {
+                int month = SPANISH_MONTHS.indexOf(spanish.group(2).replace("setiembre", "septiembre")) + 1;
+                if (month > 0) {
+                    return LocalDate.of(Integer.parseInt(spanish.group(3)), month, Integer.parseInt(spanish.group(1)));
+                }
+            }
+            Matcher english = ENGLISH_DATE.matcher(text);
+            if (english.find()) {
+                String prefix = english.group(1).substring(0, 3).toLowerCase();
+                int month = List.of("jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec")
+                        .indexOf(prefix) + 1;
+                if (month > 0) {
+                    return LocalDate.of(Integer.parseInt(english.group(3)), month, Integer.parseInt(english.group(2)));
+                }
+            }
+        } catch (java.time.DateTimeException e) {
+            return null;
+        }
+        return null;
+    }
 
-        return topicsByPage;
+    // Indica si un título menciona un hoster de descargas.
+    static boolean mentionsHoster(String title) {
+        return HOSTER_WORD.matcher(title).find();
     }
 
     // Parsea un patrón de páginas como "1,2,5-10,*".
-    private static List<Integer> parsePageSpec(String input, int totalPages) {
+    static List<Integer> parsePageSpec(String input, int totalPages) {
         LinkedHashSet<Integer> result = new LinkedHashSet<>();
 
         if (input == null || input.trim().isEmpty()) {
@@ -216,24 +342,19 @@ public class MakinamaniaScraper {
     }
 
     // Extrae la URL base de un topic sin offset de página.
-    private static String extractTopicBaseUrl(String topicUrl) {
+    static String extractTopicBaseUrl(String topicUrl) {
         String clean = normalizeId(topicUrl);
         return clean.replaceAll("\\.\\d+\\.html$", ".");
     }
 
     // Construye la URL de una página concreta de un topic.
-    private static String constructTopicPageUrl(String baseUrl, int pageNumber) {
-        int offset = (pageNumber - 1) * 15;
+    static String constructTopicPageUrl(String baseUrl, int pageNumber) {
+        int offset = (pageNumber - 1) * TOPIC_POSTS_PER_PAGE;
         return baseUrl + offset + ".html";
     }
 
-    // Descarga una página de topic.
-    private static Document fetchTopicPage(String url) throws IOException {
-        return fetchPage(url, 10000);
-    }
-
     // Obtiene los enlaces de paginación de un topic.
-    private static Elements getTopicPageLinks(Document doc) {
+    static Elements getTopicPageLinks(Document doc) {
         Elements pageLinks = doc.select("a.navPages");
         if (pageLinks.isEmpty()) {
             pageLinks = doc.select(".pagelinks a, .pagination a");
@@ -242,7 +363,7 @@ public class MakinamaniaScraper {
     }
 
     // Obtiene el total de páginas a partir de los enlaces de paginación.
-    private static int parseTotalPagesFromLinks(Elements pageLinks) {
+    static int parseTotalPagesFromLinks(Elements pageLinks) {
         Element lastPage = pageLinks.last();
         if (lastPage != null && lastPage.text().matches("\\d+")) {
             return Integer.parseInt(lastPage.text());
@@ -259,7 +380,7 @@ public class MakinamaniaScraper {
     }
 
     // Obtiene el total de páginas a partir del texto del cuerpo.
-    private static int parseTotalPagesFromBody(Document doc) {
+    static int parseTotalPagesFromBody(Document doc) {
         String bodyText = doc.body().text();
         if (bodyText.matches(".*[Pp]ágina\\s+\\d+\\s+de\\s+(\\d+).*")) {
             return Integer.parseInt(bodyText.replaceAll(".*[Pp]ágina\\s+\\d+\\s+de\\s+(\\d+).*", "$1"));
@@ -267,141 +388,6 @@ public class MakinamaniaScraper {
         return 1;
     }
 
-    // Obtiene el número total de páginas de un topic.
-    public static int getTopicTotalPages(String topicUrl) throws IOException {
-        String firstPageUrl = constructTopicPageUrl(extractTopicBaseUrl(topicUrl), 1);
-
-        try {
-            Document doc = fetchTopicPage(firstPageUrl);
-            Elements pageLinks = getTopicPageLinks(doc);
-
-            if (!pageLinks.isEmpty()) {
-                return parseTotalPagesFromLinks(pageLinks);
-            }
-
-            return parseTotalPagesFromBody(doc);
-        } catch (IOException e) {
-            System.err.println("Error obteniendo el número total de páginas: " + e.getMessage());
-            return 1;
-        }
-    }
-
-    // Alias de compatibilidad para obtener el total de páginas de un topic.
-    public static int getTotalPages(String topicUrl) throws IOException {
-        return getTopicTotalPages(topicUrl);
-    }
-
-    // Genera las URLs de páginas de un topic según un patrón.
-    public static List<String> generateTopicPageUrls(String topicUrl, String input) throws IOException {
-        int totalPages = getTopicTotalPages(topicUrl);
-        List<Integer> pages = parsePageSpec(input, totalPages);
-
-        String baseUrl = extractTopicBaseUrl(topicUrl);
-        List<String> urls = new ArrayList<>();
-
-        for (int page : pages) {
-            urls.add(constructTopicPageUrl(baseUrl, page));
-        }
-
-        return urls;
-    }
-
-    // Alias de compatibilidad para generar URLs de topic.
-    public static List<String> genUrls(String topicUrl, String input) throws IOException {
-        return generateTopicPageUrls(topicUrl, input);
-    }
-
-    // Marca el scraping para que se detenga.
-    public static void stop() {
-        stopRequested = true;
-    }
-
-    // Reinicia el estado de parada del scraping.
-    public static void reset() {
-        stopRequested = false;
-    }
-
-    // Indica si se ha solicitado detener el scraping.
-    public static boolean stopRequested() {
-        return stopRequested;
-    }
-
-    // Scrapea los posts válidos de una página del foro.
-    public static List<Post> scrapePosts(String url) {
-        if (stopRequested) {
-            return new ArrayList<>();
-        }
-
-        try {
-            Document doc = fetchPage(url, 10000);
-            return extractValidPostsFromDocument(doc);
-        } catch (Exception e) {
-            ConsoleLogger.error("Error scraping URL: " + normalizeId(url) + " - " + e.getMessage());
-            return new ArrayList<>();
-        }
-    }
-
-    // Extrae los posts válidos de un documento HTML.
-    private static List<Post> extractValidPostsFromDocument(Document doc) {
-        List<Post> posts = new ArrayList<>();
-
-        for (Element element : doc.select("div.post")) {
-            if (stopRequested) {
-                break;
-            }
-
-            Post post = parsePost(element);
-            if (post != null && hasActiveLinks(post.getDownloadLinks(), post.getHoster())) {
-                posts.add(post);
-            }
-        }
-
-        return posts;
-    }
-
-    // Convierte un elemento HTML en un objeto Post.
-    public static Post parsePost(Element post) {
-        List<String> downloadLinks = extractDownloadLinks(post);
-
-        if (downloadLinks.isEmpty()) {
-            return null;
-        }
-
-        String hoster = extractHoster(downloadLinks);
-        List<String> discogsLinks = extractDiscogsLinks(post);
-
-        return new Post(
-                extractId(post),
-                extractReference(post),
-                extractAuthor(post),
-                post.text(),
-                extractQuotes(post),
-                downloadLinks,
-                discogsLinks,
-                extractImages(post),
-                extractAlbumTitles(discogsLinks),
-                hoster,
-                false
-        );
-    }
-
-    // Comprueba si una lista de enlaces contiene alguno activo.
-    private static boolean hasActiveLinks(List<String> downloadLinks, String hoster) {
-        if (stopRequested) {
-            return false;
-        }
-
-        for (String link : downloadLinks) {
-            if (stopRequested) {
-                return false;
-            }
-            if (Checker.checkLink(link, hoster)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     // Obtiene el hoster predominante de una lista de enlaces.
     public static String extractHoster(List<String> downloadLinks) {
         Map<String, Long> counts = new HashMap<>();
@@ -422,7 +408,7 @@ public class MakinamaniaScraper {
     }
 
     // Extrae el identificador de un post desde su HTML.
-    private static String extractId(Element post) {
+    static String extractId(Element post) {
         Element parent = post.parent();
         if (parent == null) {
             return "";
@@ -450,7 +436,7 @@ public class MakinamaniaScraper {
     }
 
     // Extrae el título de un post.
-    private static String extractReference(Element post) {
+    static String extractReference(Element post) {
         Element parent = post.parent();
         if (parent == null) {
             return "";
@@ -459,7 +445,7 @@ public class MakinamaniaScraper {
     }
 
     // Extrae el autor de un post.
-    private static String extractAuthor(Element post) {
+    static String extractAuthor(Element post) {
         Element row = post.closest("tr");
         if (row == null) {
             return "unknown";
@@ -542,67 +528,8 @@ public class MakinamaniaScraper {
         return text.startsWith("cita") || text.startsWith("quote");
     }
 
-    // Indica si un post añade contenido nuevo.
-    public static boolean addsNewContent(Post post) {
-        List<String> quoteLinks = getQuoteDownloadLinks(post.getQuotes());
-        return post.getDownloadLinks().stream()
-                .anyMatch(link -> !quoteLinks.contains(link));
-    }
-
-    // Obtiene los enlaces de descarga de la primera cita referenciada.
-    private static List<String> getQuoteDownloadLinks(List<String> quoteUrls) {
-        if (quoteUrls.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        try {
-            Document doc = fetchPage(quoteUrls.get(0), 10000);
-            Element post = doc.selectFirst("div.post");
-            return post != null ? extractDownloadLinks(post) : new ArrayList<>();
-        } catch (IOException e) {
-            return new ArrayList<>();
-        }
-    }
-
-    // Extrae títulos de álbum desde enlaces de Discogs.
-    public static List<String> extractAlbumTitles(List<String> discogsLinks) {
-        return discogsLinks.stream()
-                .map(MakinamaniaScraper::getDiscogsTitle)
-                .filter(Objects::nonNull)
-                .filter(title -> !title.isEmpty())
-                .collect(Collectors.toList());
-    }
-
-    // Obtiene el título de un álbum desde un enlace de Discogs.
-    private static String getDiscogsTitle(String link) {
-        if (DISCOGS_CACHE.containsKey(link)) {
-            return DISCOGS_CACHE.get(link);
-        }
-
-        try {
-            String title = extractTitleFromDiscogsUrl(link);
-
-            if (title == null) {
-                title = fetchDiscogsTitleFromWeb(link);
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-
-            if (title != null && !title.isEmpty()) {
-                DISCOGS_CACHE.put(link, title);
-            }
-
-            return title;
-        } catch (Exception e) {
-            return null;
-        }
-    }
-
     // Intenta obtener el título del álbum directamente desde la URL.
-    private static String extractTitleFromDiscogsUrl(String link) {
+    static String extractTitleFromDiscogsUrl(String link) {
         if (link.matches(".*/release/\\d+-.*")) {
             String rawTitle = link.substring(link.lastIndexOf('/') + 1);
             rawTitle = rawTitle.replaceFirst("\\d+-", "");
@@ -611,41 +538,26 @@ public class MakinamaniaScraper {
         return null;
     }
 
-    // Obtiene el título del álbum haciendo scraping en Discogs.
-    private static String fetchDiscogsTitleFromWeb(String url) throws IOException {
-        Document doc = Jsoup.connect(normalizeId(url))
-                .userAgent("Mozilla/5.0")
-                .timeout(10000)
-                .get();
-
-        Element h1 = doc.selectFirst("h1.MuiTypography-headLineXL.title_Brnd1");
-        if (h1 != null) {
-            String fullText = h1.text();
-            String[] parts = fullText.split("–");
-            return parts.length > 1 ? parts[1].trim() : fullText.trim();
-        }
-        return null;
-    }
 /* 
     // Main de prueba que analiza la página 2 del board y todas las páginas de sus tópicos
     public static void main(String[] args) {
         String defaultBoardUrl = "https://www.makinamania.net/index.php/board,52.40/sort,views/desc.html";
         String boardUrl = args.length > 0 ? args[0] : defaultBoardUrl;
 
-        System.out.println("Board URL original: " + boardUrl);
+        ConsoleLogger.info("Board URL: " + boardUrl);
         String cleanBoardUrl = normalizeId(boardUrl);
-        System.out.println("Board URL limpia:   " + cleanBoardUrl);
+        ConsoleLogger.info("Normalized board URL: " + cleanBoardUrl);
 
         try {
             int totalBoardPages = getBoardTotalPages(cleanBoardUrl);
-            System.out.println("Total páginas del board (detectadas): " + totalBoardPages);
+            ConsoleLogger.info("Board pages detected: " + totalBoardPages);
 
             // Solo página 2 para el board
             List<String> topics = getTopicsForBoardPages(cleanBoardUrl, "2");
-            System.out.println("Topics encontrados en la página 2: " + topics.size());
+            ConsoleLogger.info("Topics found on page 2: " + topics.size());
 
             if (topics.isEmpty()) {
-                System.out.println("No se han encontrado topics.");
+                ConsoleLogger.warn("No topics found");
                 return;
             }
 
@@ -657,12 +569,11 @@ public class MakinamaniaScraper {
                 String topicUrl = topics.get(i);
                 String cleanTopicUrl = normalizeId(topicUrl);
 
-                System.out.println("\n=== Topic " + (i + 1) + " ===");
-                System.out.println("URL topic limpia: " + cleanTopicUrl);
+                ConsoleLogger.start("Topic " + (i + 1) + ": " + cleanTopicUrl);
 
                 int topicPages = getTopicTotalPages(cleanTopicUrl);
                 totalTopicPages += topicPages;
-                System.out.println("Páginas del topic: " + topicPages);
+                ConsoleLogger.info("Topic pages: " + topicPages);
 
                 // Todas las páginas del topic
                 List<String> topicPageUrls = generateTopicPageUrls(cleanTopicUrl, "*");
@@ -674,16 +585,16 @@ public class MakinamaniaScraper {
                 }
 
                 totalPosts += topicPosts;
-                System.out.println("Posts válidos en este topic: " + topicPosts);
+                ConsoleLogger.info("Valid posts in this topic: " + topicPosts);
             }
 
-            System.out.println("\n=== Resumen página 2 del board ===");
-            System.out.println("Total topics:       " + totalTopics);
-            System.out.println("Total páginas topic: " + totalTopicPages);
-            System.out.println("Total posts válidos: " + totalPosts);
+            ConsoleLogger.success("Board page 2: " + totalTopics + " topics, " + totalTopicPages + " topic pages, "
+                    + totalPosts + " valid posts");
 
         } catch (Exception e) {
-            e.printStackTrace();
+            ConsoleLogger.error("Scraping failed: " + boardUrl, e);
+        } finally {
+            ConsoleLogger.flush(2000);
         }
     }
         */
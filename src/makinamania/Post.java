@@ -1,8 +1,14 @@
 package makinamania;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.List;
+import java.util.regex.Pattern;
 
 public class Post {
+    private static final Pattern QUOTE_HEADER = Pattern.compile("(?s)(Cita de:.*?\\d{2}:\\d{2}:\\d{2} (am|pm)\\s*)+");
+    private static final int LABEL_MAX_LENGTH = 50;
+
     private String id;
     private String reference;
     private String author;
@@ -13,7 +19,10 @@ public class Post {
     private List<String> images;
     private List<String> albumTitles;
     private String hoster;
-    private boolean linkAlive = false;
+    // Los actualiza el LinkRevalidator en segundo plano mientras la interfaz los lee.
+    private volatile boolean linkAlive = false;
+    private volatile long lastChecked;
+    private transient String displayLabel;
 
     public Post(String id,
             String reference,
@@ -49,6 +58,7 @@ public class Post {
 
     public void setId(String id) {
         this.id = id;
+        this.displayLabel = null;
     }
 
     public String getAuthor() {
@@ -73,6 +83,7 @@ public class Post {
 
     public void setText(String text) {
         this.text = text;
+        this.displayLabel = null;
     }
 
     public List<String> getDownloadLinks() {
@@ -113,6 +124,7 @@ public class Post {
 
     public void setAlbumTitles(List<String> otherLinks) {
         this.albumTitles = otherLinks;
+        this.displayLabel = null;
     }
 
     public String getHoster() {
@@ -131,6 +143,49 @@ public class Post {
         this.linkAlive = linkAlive;
     }
 
+    // Momento (epoch ms) de la última comprobación de los enlaces; 0 si nunca se han comprobado.
+    public long getLastChecked() {
+        return lastChecked;
+    }
+
+    public void setLastChecked(long lastChecked) {
+        this.lastChecked = lastChecked;
+    }
+
+    // Texto que muestra la lista de posts; se calcula una sola vez por post.
+    @JsonIgnore
+    public String getDisplayLabel() {
+        String label = displayLabel;
+        if (label == null) {
+            label = buildDisplayLabel();
+            displayLabel = label;
+        }
+        return label;
+    }
+
+    @JsonIgnore
+    public boolean hasAlbumTitle() {
+        return albumTitles != null && !albumTitles.isEmpty();
+    }
+
+    private String buildDisplayLabel() {
+        if (hasAlbumTitle()) {
+            return albumTitles.get(0);
+        }
+        if (text != null && !text.isEmpty()) {
+            String cleanText = cleanMessage(text);
+            if (cleanText.length() > LABEL_MAX_LENGTH)
+                cleanText = cleanText.substring(0, LABEL_MAX_LENGTH) + "...";
+            return cleanText;
+        }
+        return "Post ID: " + id;
+    }
+
+    // Elimina las cabeceras de las citas ("Cita de: ... 12:34:56 pm") del texto del post.
+    public static String cleanMessage(String rawText) {
+        return QUOTE_HEADER.matcher(rawText).replaceAll("").trim();
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj)
@@ -0,0 +1,723 @@
+package makinamania;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
+
+// Índice invertido de los posts: trigramas sobre los campos ya normalizados con sus posting lists,
+// más listas de ids por hoster y por autor para filtrar y contar por facetas. Cada posting guarda
+// dónde sale el trigrama por primera vez en el post, así que casi nunca hace falta releer el texto
+// para confirmar una consulta larga. Las consultas de 1 carácter usan un bitset por carácter y las de 2
+// las posting lists de los trigramas que empiezan o acaban por ellos. Cada objeto Post es un documento,
+// aunque otro tenga el mismo id (o ninguno). Borrar solo deja una lápida (el hueco a null en posts);
+// las posting lists se limpian de golpe cuando las lápidas superan a los posts vivos.
+public class PostIndex {
+    public enum Facet {
+        HOSTER, AUTHOR
+    }
+
+    private static final int GRAM_SIZE = 3;
+    private static final char FIELD_SEPARATOR = '\u0000';
+    private static final int POSITION_BITS = 16;
+    private static final int FAR_POSITION = 0x7FFF;
+    private static final int REPEATED = 0x8000;
+    private static final int INDEXED_CHARS = 128;
+    private static final int REFINE_SCAN_LIMIT = 4096;
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+    private static final BooleanSupplier NEVER_CANCELLED = () -> false;
+    private static final int MIN_PURGE_TOMBSTONES = 1024;
+
+    private final List<Post> posts = new ArrayList<>();
+    private final List<String> foldedFields = new ArrayList<>();
+    private final Map<Post, Integer> docIds = new IdentityHashMap<>();
+    private final GramTable grams = new GramTable();
+    private final Map<Integer, List<GramPostings>> gramsByBigram = new HashMap<>();
+    private final BitSet[] docsByChar = new BitSet[INDEXED_CHARS];
+    private final FacetIndex hosters = new FacetIndex();
+    private final FacetIndex authors = new FacetIndex();
+    private int liveCount;
+    private int tombstones;
+    private int[] liveDocs;
+
+    // Añade un post al índice y devuelve su docId, o -1 si ese mismo objeto ya estaba.
+    public int add(Post post) {
+        if (post == null || docIds.containsKey(post)) {
+            return -1;
+        }
+
+        int docId = posts.size();
+        String folded = foldFields(post);
+        posts.add(post);
+        foldedFields.add(folded);
+        docIds.put(post, docId);
+        liveCount++;
+        liveDocs = null;
+        hosters.add(docId, post.getHoster() != null ? post.getHoster().toLowerCase(Locale.ROOT) : null);
+        authors.add(docId, post.getAuthor());
+
+        for (long occurrence : gramOccurrences(folded)) {
+            long gram = occurrence >>> POSITION_BITS;
+            GramPostings list = grams.get(gram);
+            if (list == null) {
+                list = grams.create(gram);
+                indexBigrams(gram, list);
+            }
+            list.add(docId, (short) occurrence);
+        }
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (c != FIELD_SEPARATOR && c < INDEXED_CHARS) {
+                if (docsByChar[c] == null) {
+                    docsByChar[c] = new BitSet();
+                }
+                docsByChar[c].set(docId);
+            }
+        }
+        return docId;
+    }
+
+    // O(1): el docId queda como lápida y las búsquedas lo descartan al verificar los candidatos.
+    public boolean remove(Post post) {
+        Integer docId = docIds.remove(post);
+        if (docId == null) {
+            return false;
+        }
+
+        hosters.remove(docId);
+        authors.remove(docId);
+        posts.set(docId, null);
+        foldedFields.set(docId, null);
+        liveCount--;
+        liveDocs = null;
+        if (++tombstones > Math.max(liveCount, MIN_PURGE_TOMBSTONES)) {
+            purgeTombstones();
+        }
+        return true;
+    }
+
+    public void clear() {
+        posts.clear();
+        foldedFields.clear();
+        docIds.clear();
+        grams.clear();
+        gramsByBigram.clear();
+        Arrays.fill(docsByChar, null);
+        hosters.clear();
+        authors.clear();
+        liveCount = 0;
+        tombstones = 0;
+        liveDocs = null;
+    }
+
+    public boolean contains(Post post) {
+        return docIds.containsKey(post);
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    public Post get(int docId) {
+        return posts.get(docId);
+    }
+
+    // Devuelve la posting list (docIds ordenados) de los posts que contienen el texto buscado.
+    public int[] search(String query) {
+        return search(query, NEVER_CANCELLED);
+    }
+
+    // Igual que search, pero devuelve null en cuanto cancelled indica que la consulta ya no interesa.
+    public int[] search(String query, BooleanSupplier cancelled) {
+        String folded = fold(query == null ? "" : query.trim());
+        if (folded.isEmpty()) {
+            return liveDocs();
+        }
+        if (folded.length() >= GRAM_SIZE) {
+            return searchGrams(folded, cancelled);
+        }
+        if (folded.length() == 1) {
+            return searchChar(folded.charAt(0), cancelled);
+        }
+        return searchShort(folded, cancelled);
+    }
+
+    // Filtra un resultado previo: sirve cuando la nueva consulta contiene a la anterior.
+    public int[] refine(int[] candidates, String query, BooleanSupplier cancelled) {
+        String folded = fold(query == null ? "" : query.trim());
+        if (folded.isEmpty()) {
+            return candidates;
+        }
+        // Con muchos candidatos sale más barato buscar en el índice que releer el texto de cada uno.
+        if (folded.length() >= GRAM_SIZE && candidates.length > REFINE_SCAN_LIMIT) {
+            int[] matches = searchGrams(folded, cancelled);
+            return matches != null ? IntList.intersect(candidates, candidates.length, matches, matches.length) : null;
+        }
+        return scan(candidates, folded, cancelled);
+    }
+
+    // Restringe un resultado a los posts con ese valor de faceta (hoster sin distinguir mayúsculas).
+    public int[] filterFacet(int[] docs, Facet facet, String value) {
+        if (value == null || value.isEmpty()) {
+            return docs;
+        }
+        String key = facet == Facet.HOSTER ? value.toLowerCase(Locale.ROOT) : value;
+        IntList postings = facetIndex(facet).postings(key);
+        return postings != null ? IntList.intersect(docs, postings) : new int[0];
+    }
+
+    // Cuenta cuántos posts del resultado hay por cada valor de la faceta, de mayor a menor.
+    public Map<String, Integer> facetCounts(int[] docs, Facet facet) {
+        return facetIndex(facet).counts(docs, docs.length == liveCount);
+    }
+
+    // docIds de todos los posts vivos, en orden; se reconstruye solo tras añadir o borrar.
+    private int[] liveDocs() {
+        if (liveDocs == null) {
+            int[] docs = new int[liveCount];
+            int n = 0;
+            for (int docId = 0; docId < posts.size(); docId++) {
+                if (posts.get(docId) != null) {
+                    docs[n++] = docId;
+                }
+            }
+            liveDocs = docs;
+        }
+        return liveDocs;
+    }
+
+    // Quita las lápidas de todas las posting lists; se hace cuando ya hay más lápidas que posts vivos,
+    // así que su coste se reparte entre los borrados que la han provocado.
+    private void purgeTombstones() {
+        IntPredicate live = docId -> posts.get(docId) != null;
+        grams.forEach((gram, list) -> {
+            list.retain(live);
+            return true;
+        });
+        BitSet dead = new BitSet(posts.size());
+        for (int docId = 0; docId < posts.size(); docId++) {
+            if (posts.get(docId) == null) {
+                dead.set(docId);
+            }
+        }
+        for (BitSet docs : docsByChar) {
+            if (docs != null) {
+                docs.andNot(dead);
+            }
+        }
+        hosters.purge(live);
+        authors.purge(live);
+        tombstones = 0;
+    }
+
+    private FacetIndex facetIndex(Facet facet) {
+        return facet == Facet.HOSTER ? hosters : authors;
+    }
+
+    // Intersecta las posting lists de trigramas que cubren la consulta uno detrás de otro (más el más
+    // raro, que es el que guía), avanzando a saltos por las largas. Las posiciones dicen casi siempre si
+    // están seguidos; solo cuando no cuadran y alguno se repite en el post hay que mirar el texto.
+    private int[] searchGrams(String folded, BooleanSupplier cancelled) {
+        int count = folded.length() - GRAM_SIZE + 1;
+        GramPostings[] all = new GramPostings[count];
+        int rarest = 0;
+        for (int i = 0; i < count; i++) {
+            GramPostings list = grams.get(encode(folded.charAt(i), folded.charAt(i + 1), folded.charAt(i + 2)));
+            if (list == null || list.isEmpty()) {
+                return new int[0];
+            }
+            all[i] = list;
+            if (list.size() < all[rarest].size()) {
+                rarest = i;
+            }
+        }
+
+        int[] offsets = coveringOffsets(count, rarest);
+        GramPostings[] lists = new GramPostings[offsets.length];
+        int lead = 0;
+        for (int k = 0; k < offsets.length; k++) {
+            lists[k] = all[offsets[k]];
+            if (offsets[k] == rarest) {
+                lead = k;
+            }
+        }
+
+        int[] cursors = new int[lists.length];
+        int[] out = new int[lists[lead].size()];
+        int n = 0;
+        candidates:
+        for (int c = 0; c < lists[lead].size(); c++) {
+            if (c % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) {
+                return null;
+            }
+            int docId = lists[lead].doc(c);
+            if (tombstones > 0 && posts.get(docId) == null) {
+                continue;
+            }
+            cursors[lead] = c;
+            for (int k = 0; k < lists.length; k++) {
+                if (k != lead) {
+                    GramPostings list = lists[k];
+                    int cursor = list.seek(docId, cursors[k]);
+                    if (cursor == list.size) {
+                        break candidates;
+                    }
+                    cursors[k] = cursor;
+                    if (list.docs[cursor] != docId) {
+                        continue candidates;
+                    }
+                }
+            }
+            if (count == 1 || adjacent(lists, offsets, cursors, docId, folded)) {
+                out[n++] = docId;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    // Posiciones de trigramas que juntos tapan toda la consulta (0, 3, 6... y el último), más la del
+    // más raro; si están todos en su sitio, la consulta está entera.
+    private static int[] coveringOffsets(int count, int rarest) {
+        int[] offsets = new int[count / GRAM_SIZE + 3];
+        int n = 0;
+        for (int i = 0; i < count; i += GRAM_SIZE) {
+            offsets[n++] = i;
+        }
+        if (offsets[n - 1] != count - 1) {
+            offsets[n++] = count - 1;
+        }
+        if (Arrays.binarySearch(offsets, 0, n, rarest) < 0) {
+            offsets[n++] = rarest;
+        }
+        return Arrays.copyOf(offsets, n);
+    }
+
+    // Si la primera aparición de cada trigrama cae a su distancia de la del primero, la consulta está
+    // ahí; si no cuadran y ninguno se repite, no está. Solo en los demás casos decide el texto.
+    private boolean adjacent(GramPostings[] lists, int[] offsets, int[] cursors, int docId, String folded) {
+        int start = Integer.MIN_VALUE;
+        boolean aligned = true;
+        boolean ambiguous = false;
+        for (int k = 0; k < lists.length; k++) {
+            int position = lists[k].position(cursors[k]);
+            ambiguous |= lists[k].repeated(cursors[k]) || position == FAR_POSITION;
+            if (position == FAR_POSITION) {
+                aligned = false;
+            } else if (start == Integer.MIN_VALUE) {
+                start = position - offsets[k];
+                aligned &= start >= 0;
+            } else if (position - offsets[k] != start) {
+                aligned = false;
+            }
+        }
+        if (aligned || !ambiguous) {
+            return aligned;
+        }
+        return foldedFields.get(docId).contains(folded);
+    }
+
+    // Consultas de 1 carácter: el bitset de ese carácter; los que no son ASCII se buscan en el texto.
+    private int[] searchChar(char c, BooleanSupplier cancelled) {
+        if (c >= INDEXED_CHARS) {
+            return scan(liveDocs(), String.valueOf(c), cancelled);
+        }
+        BitSet docs = docsByChar[c];
+        if (docs == null) {
+            return new int[0];
+        }
+        int[] out = new int[docs.cardinality()];
+        int n = 0;
+        for (int docId = docs.nextSetBit(0); docId >= 0; docId = docs.nextSetBit(docId + 1)) {
+            if (posts.get(docId) != null) {
+                out[n++] = docId;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    // Consultas de 2 caracteres: une las posting lists de los trigramas que empiezan o acaban por ellos.
+    private int[] searchShort(String folded, BooleanSupplier cancelled) {
+        List<GramPostings> lists = gramsByBigram.get(bigram(folded.charAt(0), folded.charAt(1)));
+        if (lists == null) {
+            return new int[0];
+        }
+        BitSet matches = new BitSet(posts.size());
+        for (GramPostings list : lists) {
+            if (cancelled.getAsBoolean()) {
+                return null;
+            }
+            for (int i = 0; i < list.size(); i++) {
+                matches.set(list.doc(i));
+            }
+        }
+        int[] out = new int[matches.cardinality()];
+        int n = 0;
+        for (int docId = matches.nextSetBit(0); docId >= 0; docId = matches.nextSetBit(docId + 1)) {
+            if (posts.get(docId) != null) {
+                out[n++] = docId;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private int[] scan(int[] candidates, String folded, BooleanSupplier cancelled) {
+        int[] out = new int[candidates.length];
+        int n = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) {
+                return null;
+            }
+            String fields = foldedFields.get(candidates[i]);
+            if (fields != null && fields.contains(folded)) {
+                out[n++] = candidates[i];
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // Apunta la posting list de un trigrama nuevo bajo los dos caracteres con que empieza y acaba.
+    private void indexBigrams(long gram, GramPostings list) {
+        char c0 = (char) (gram >>> 32);
+        char c1 = (char) (gram >>> 16);
+        char c2 = (char) gram;
+        if (c1 != FIELD_SEPARATOR) {
+            gramsByBigram.computeIfAbsent(bigram(c0, c1), k -> new ArrayList<>()).add(list);
+            if (c2 != FIELD_SEPARATOR && (c0 != c1 || c1 != c2)) {
+                gramsByBigram.computeIfAbsent(bigram(c1, c2), k -> new ArrayList<>()).add(list);
+            }
+        }
+    }
+
+    private static int bigram(char c0, char c1) {
+        return (c0 << 16) | c1;
+    }
+
+    private static long encode(char c0, char c1, char c2) {
+        return ((long) c0 << 32) | ((long) c1 << 16) | c2;
+    }
+
+    // Trigramas de un texto con su primera posición en los bits bajos (FAR_POSITION si queda demasiado
+    // lejos), ordenados y uno por trigrama, marcados con REPEATED si salen más de una vez. Los campos
+    // cortos se indexan rellenados con el separador.
+    private static long[] gramOccurrences(String folded) {
+        long[] buffer = new long[folded.length() + 1];
+        int n = 0;
+        int fieldStart = 0;
+        for (int i = 0; i <= folded.length(); i++) {
+            if (i == folded.length() || folded.charAt(i) == FIELD_SEPARATOR) {
+                int fieldLength = i - fieldStart;
+                if (fieldLength > 0 && fieldLength < GRAM_SIZE) {
+                    char c0 = folded.charAt(fieldStart);
+                    char c1 = fieldLength > 1 ? folded.charAt(fieldStart + 1) : FIELD_SEPARATOR;
+                    buffer[n++] = occurrence(encode(c0, c1, FIELD_SEPARATOR), fieldStart);
+                }
+                fieldStart = i + 1;
+            } else if (i + 1 - fieldStart >= GRAM_SIZE) {
+                buffer[n++] = occurrence(encode(folded.charAt(i - 2), folded.charAt(i - 1), folded.charAt(i)), i - 2);
+            }
+        }
+
+        Arrays.sort(buffer, 0, n);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique > 0 && buffer[unique - 1] >>> POSITION_BITS == buffer[i] >>> POSITION_BITS) {
+                buffer[unique - 1] |= REPEATED;
+            } else {
+                buffer[unique++] = buffer[i];
+            }
+        }
+        return Arrays.copyOf(buffer, unique);
+    }
+
+    private static long occurrence(long gram, int position) {
+        return (gram << POSITION_BITS) | Math.min(position, FAR_POSITION);
+    }
+
+    // Concatena los campos buscables ya normalizados, separados para que ningún trigrama los cruce.
+    private static String foldFields(Post post) {
+        StringBuilder sb = new StringBuilder();
+        appendField(sb, post.getAuthor());
+        appendField(sb, post.getReference());
+        appendFields(sb, post.getAlbumTitles());
+        appendFields(sb, post.getDiscogs());
+        appendFields(sb, post.getDownloadLinks());
+        return fold(sb.toString());
+    }
+
+    private static void appendFields(StringBuilder sb, List<String> values) {
+        if (values != null) {
+            for (String value : values) {
+                appendField(sb, value);
+            }
+        }
+    }
+
+    private static void appendField(StringBuilder sb, String value) {
+        if (value != null) {
+            sb.append(value).append(FIELD_SEPARATOR);
+        }
+    }
+
+    // Pasa a minúsculas y elimina acentos para que "Música" y "musica" coincidan.
+    public static String fold(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 0x7F) {
+                return Normalizer.normalize(lower, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+            }
+        }
+        return lower;
+    }
+
+    // Tabla hash abierta de trigrama codificado a posting list, sin boxing de las claves.
+    private static final class GramTable {
+        private static final long EMPTY = -1L;
+
+        private long[] keys;
+        private GramPostings[] values;
+        private int size;
+
+        GramTable() {
+            allocate(1 << 12);
+        }
+
+        GramPostings get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        // Crea la posting list de un trigrama que todavía no está en la tabla.
+        GramPostings create(long key) {
+            if ((size + 1) * 10 > keys.length * 6) {
+                rehash();
+            }
+            GramPostings list = new GramPostings();
+            insert(key, list);
+            size++;
+            return list;
+        }
+
+        // Recorre las entradas no vacías; se detiene si el consumidor devuelve false.
+        boolean forEach(GramVisitor visitor) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY && !values[i].isEmpty() && !visitor.visit(keys[i], values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void clear() {
+            allocate(1 << 12);
+            size = 0;
+        }
+
+        private void insert(long key, GramPostings list) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = list;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            GramPostings[] oldValues = values;
+            allocate(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    insert(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            values = new GramPostings[capacity];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    // Posting list de un trigrama: docIds crecientes y, para cada uno, la primera posición del trigrama
+    // en el texto del post con el bit REPEATED si sale más de una vez.
+    private static final class GramPostings {
+        private int[] docs = new int[4];
+        private short[] positions = new short[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int doc(int index) {
+            return docs[index];
+        }
+
+        int position(int index) {
+            return positions[index] & FAR_POSITION;
+        }
+
+        boolean repeated(int index) {
+            return (positions[index] & REPEATED) != 0;
+        }
+
+        // Los docIds llegan siempre crecientes, así que basta con añadir al final.
+        void add(int docId, short position) {
+            if (size == docs.length) {
+                int capacity = size + (size >> 1);
+                docs = Arrays.copyOf(docs, capacity);
+                positions = Arrays.copyOf(positions, capacity);
+            }
+            docs[size] = docId;
+            positions[size] = position;
+            size++;
+        }
+
+        // Primer índice desde from cuyo docId es >= docId, avanzando a saltos que se doblan.
+        int seek(int docId, int from) {
+            if (from >= size || docs[from] >= docId) {
+                return from;
+            }
+            if (++from == size || docs[from] >= docId) {
+                return from;
+            }
+            int low = from;
+            int step = 1;
+            int high = from + 1;
+            while (high < size && docs[high] < docId) {
+                low = high;
+                step <<= 1;
+                high = from + step;
+            }
+            int found = Arrays.binarySearch(docs, low + 1, Math.min(high, size), docId);
+            return found >= 0 ? found : -found - 1;
+        }
+
+        void retain(IntPredicate keep) {
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (keep.test(docs[i])) {
+                    docs[n] = docs[i];
+                    positions[n] = positions[i];
+                    n++;
+                }
+            }
+            size = n;
+        }
+    }
+
+    // Valores de una faceta con la lista de docIds de cada uno y el valor que corresponde a cada doc.
+    // Al borrar solo se descuenta el doc: su docId se queda en la lista, pero filterFacet siempre
+    // intersecta con docs vivos.
+    private static final class FacetIndex {
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<IntList> postings = new ArrayList<>();
+        private int[] docOrdinals = new int[1024];
+        private int[] liveCounts = new int[16];
+
+        void add(int docId, String value) {
+            if (docId >= docOrdinals.length) {
+                docOrdinals = Arrays.copyOf(docOrdinals, Math.max(docId + 1, docOrdinals.length * 2));
+            }
+            if (value == null) {
+                docOrdinals[docId] = -1;
+                return;
+            }
+            int ordinal = ordinals.computeIfAbsent(value, k -> {
+                values.add(k);
+                postings.add(new IntList());
+                if (values.size() > liveCounts.length) {
+                    liveCounts = Arrays.copyOf(liveCounts, liveCounts.length * 2);
+                }
+                return values.size() - 1;
+            });
+            postings.get(ordinal).add(docId);
+            liveCounts[ordinal]++;
+            docOrdinals[docId] = ordinal;
+        }
+
+        void remove(int docId) {
+            int ordinal = docOrdinals[docId];
+            if (ordinal >= 0) {
+                liveCounts[ordinal]--;
+                docOrdinals[docId] = -1;
+            }
+        }
+
+        void purge(IntPredicate live) {
+            for (IntList list : postings) {
+                list.retain(live);
+            }
+        }
+
+        IntList postings(String value) {
+            Integer ordinal = ordinals.get(value);
+            return ordinal != null ? postings.get(ordinal) : null;
+        }
+
+        Map<String, Integer> counts(int[] docs, boolean allDocs) {
+            int[] tally = new int[values.size()];
+            if (allDocs) {
+                System.arraycopy(liveCounts, 0, tally, 0, tally.length);
+            } else {
+                for (int docId : docs) {
+                    int ordinal = docOrdinals[docId];
+                    if (ordinal >= 0) {
+                        tally[ordinal]++;
+                    }
+                }
+            }
+
+            Integer[] order = new Integer[tally.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(tally[b], tally[a]));
+
+            Map<String, Integer> result = new LinkedHashMap<>();
+            for (int ordinal : order) {
+                if (tally[ordinal] == 0) {
+                    break;
+                }
+                result.put(values.get(ordinal), tally[ordinal]);
+            }
+            return result;
+        }
+
+        void clear() {
+            ordinals.clear();
+            values.clear();
+            postings.clear();
+            liveCounts = new int[16];
+        }
+    }
+
+    private interface GramVisitor {
+        boolean visit(long gram, GramPostings postings);
+    }
+}
@@ -0,0 +1,40 @@
+package makinamania;
+
+import javax.swing.AbstractListModel;
+
+// Modelo de la lista de posts respaldado por un array que se sustituye de golpe con un único evento.
+public class PostListModel extends AbstractListModel<Post> {
+    private static final long serialVersionUID = 1L;
+
+    private Post[] posts = new Post[0];
+    private long lastSwapNanos;
+
+    @Override
+    public int getSize() {
+        return posts.length;
+    }
+
+    @Override
+    public Post getElementAt(int index) {
+        return posts[index];
+    }
+
+    // Reemplaza el contenido; debe llamarse desde el EDT.
+    public void setPosts(Post[] newPosts) {
+        int oldSize = posts.length;
+        posts = newPosts != null ? newPosts : new Post[0];
+        lastSwapNanos = System.nanoTime();
+
+        int changed = Math.max(oldSize, posts.length);
+        if (changed > 0) {
+            fireContentsChanged(this, 0, changed - 1);
+        }
+    }
+
+    // Devuelve el instante del último cambio de contenido pendiente de pintar y lo consume.
+    public long consumeSwapNanos() {
+        long swap = lastSwapNanos;
+        lastSwapNanos = 0;
+        return swap;
+    }
+}
@@ -1,20 +1,55 @@
 package makinamania;
 
 import javax.swing.*;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.ArrayList;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 public class PostManager {
-    private List<Post> allPosts = new ArrayList<>();
-    private Set<String> existingIds = new HashSet<>();
-    private DefaultListModel<Post> listModel;
+    // Recibe, en el EDT, los recuentos por hoster y por autor del último filtrado. Los totales son
+    // los posts sobre los que se ha contado cada faceta, incluidos los que no tienen hoster o autor.
+    public interface FacetListener {
+        void facetsUpdated(Map<String, Integer> hosterCounts, int hosterTotal, Map<String, Integer> authorCounts,
+                int authorTotal);
+    }
+
+    // El índice y la lista de posts solo se modifican desde filterExecutor, que también ejecuta las búsquedas.
+    private final List<Post> allPosts = Collections.synchronizedList(new ArrayList<>());
+    private final PostIndex index = new PostIndex();
+    // Ids ya cargados: un post con el mismo id que otro se descarta (los que no tienen id se cargan todos).
+    private final Set<String> postIds = new HashSet<>();
+    private final ExecutorService filterExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "post-filter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong filterGeneration = new AtomicLong();
+    private PostListModel listModel;
     private JLabel postCountLabel;
     private JTextField searchField;
 
-    public PostManager(DefaultListModel<Post> listModel, JLabel postCountLabel, JTextField searchField) {
+    private FacetListener facetListener;
+    private Consumer<String> errorListener = message -> {
+    };
+
+    private volatile String currentHoster = "";
+    private volatile String currentAuthor = "";
+    private int indexVersion;
+    private int lastResultVersion = -1;
+    private String lastQuery = "";
+    private int[] lastResult;
+
+    public PostManager(PostListModel listModel, JLabel postCountLabel, JTextField searchField) {
         this.listModel = listModel;
         this.postCountLabel = postCountLabel;
         this.searchField = searchField;
@@ -25,16 +60,20 @@ public class PostManager {
     }
 
     public void updatePosts(List<Post> newPosts) {
-        allPosts.clear();
-        existingIds.clear();
-        if (newPosts != null) {
-            for (Post p : newPosts) {
-                if (p.getId() != null) {
-                    existingIds.add(p.getId());
+        List<Post> snapshot = newPosts != null ? new ArrayList<>(newPosts) : new ArrayList<>();
+        filterExecutor.execute(() -> {
+            allPosts.clear();
+            index.clear();
+            postIds.clear();
+            for (Post p : snapshot) {
+                if (p != null && (p.getId() == null || postIds.add(p.getId())) && index.add(p) >= 0) {
+                    // Precalcula la etiqueta de la lista aquí, fuera del EDT.
+                    p.getDisplayLabel();
+                    allPosts.add(p);
                 }
-                allPosts.add(p);
             }
-        }
+            indexVersion++;
+        });
         applyCurrentFilter();
     }
 
@@ -42,122 +81,158 @@ public class PostManager {
         if (newPosts == null || newPosts.isEmpty())
             return;
 
-        List<Post> toAdd = new ArrayList<>();
-        for (Post p : newPosts) {
-            if (p.getId() != null && !existingIds.contains(p.getId())) {
-                existingIds.add(p.getId());
-                toAdd.add(p);
+        List<Post> snapshot = new ArrayList<>(newPosts);
+        filterExecutor.execute(() -> {
+            List<Post> toAdd = new ArrayList<>();
+            for (Post p : snapshot) {
+                if (p.getId() != null && postIds.add(p.getId()) && index.add(p) >= 0) {
+                    p.getDisplayLabel();
+                    toAdd.add(p);
+                }
             }
-        }
 
-        if (!toAdd.isEmpty()) {
-            allPosts.addAll(toAdd);
-            applyCurrentFilter();
-        }
+            if (!toAdd.isEmpty()) {
+                allPosts.addAll(toAdd);
+                indexVersion++;
+            }
+        });
+        applyCurrentFilter();
     }
 
     public void replaceAllPosts(List<Post> newPosts) {
         updatePosts(newPosts);
     }
 
-    public void applyCurrentFilter() {
-        String searchText = searchField.getText().trim().toLowerCase();
-
-        List<Post> filteredPosts = allPosts.stream()
-                .filter(post -> searchText.isEmpty() || matchesSearch(post, searchText))
-                .collect(Collectors.toList());
+    public void setFacetListener(FacetListener facetListener) {
+        this.facetListener = facetListener;
+    }
 
-        updateListModel(filteredPosts);
+    // Recibe, en el EDT, los errores de lo que PostManager hace en segundo plano (p. ej. guardar tras borrar).
+    public void setErrorListener(Consumer<String> errorListener) {
+        this.errorListener = errorListener;
     }
 
-    public void filterPostsByHoster(String hoster) {
-        String searchText = searchField.getText().trim().toLowerCase();
+    public void applyCurrentFilter() {
+        String searchText = searchField.getText().trim();
+        String hoster = currentHoster;
+        String author = currentAuthor;
+        long generation = filterGeneration.incrementAndGet();
 
-        List<Post> filteredPosts = allPosts.stream()
-                .filter(post -> searchText.isEmpty() || matchesSearch(post, searchText))
-                .filter(post -> hoster == null || hoster.isEmpty() ||
-                        (post.getHoster() != null && post.getHoster().equalsIgnoreCase(hoster)))
-                .collect(Collectors.toList());
+        filterExecutor.execute(() -> runFilter(searchText, hoster, author, generation));
+    }
 
-        updateListModel(filteredPosts);
+    public void filterPostsByHoster(String hoster) {
+        currentHoster = hoster != null ? hoster : "";
+        applyCurrentFilter();
     }
 
-    private void updateListModel(List<Post> postsToShow) {
-        SwingUtilities.invokeLater(() -> {
-            listModel.clear();
-            for (Post post : postsToShow) {
-                listModel.addElement(post);
-            }
-            postCountLabel.setText("Posts: " + listModel.size() + " / " + allPosts.size());
-        });
+    public void filterPostsByAuthor(String author) {
+        currentAuthor = author != null ? author : "";
+        applyCurrentFilter();
     }
 
-    private boolean matchesSearch(Post post, String searchText) {
-        if (post.getAuthor() != null && post.getAuthor().toLowerCase().contains(searchText)) {
-            return true;
+    // Ejecuta la búsqueda fuera del EDT; si llega una consulta más nueva se abandona a mitad.
+    private void runFilter(String searchText, String hoster, String author, long generation) {
+        if (generation != filterGeneration.get()) {
+            return;
         }
 
-        if (post.getReference() != null && post.getReference().toLowerCase().contains(searchText)) {
-            return true;
+        String query = PostIndex.fold(searchText);
+        int[] matches;
+        if (lastResult != null && lastResultVersion == indexVersion
+                && !lastQuery.isEmpty() && query.contains(lastQuery)) {
+            matches = index.refine(lastResult, query, () -> generation != filterGeneration.get());
+        } else {
+            matches = index.search(query, () -> generation != filterGeneration.get());
         }
-
-        if (post.getAlbumTitles() != null) {
-            for (String title : post.getAlbumTitles()) {
-                if (title.toLowerCase().contains(searchText)) {
-                    return true;
-                }
-            }
+        if (matches == null) {
+            return;
         }
 
-        if (post.getDiscogs() != null) {
-            for (String discog : post.getDiscogs()) {
-                if (discog.toLowerCase().contains(searchText)) {
-                    return true;
-                }
-            }
+        lastQuery = query;
+        lastResult = matches;
+        lastResultVersion = indexVersion;
+
+        // Cada faceta se cuenta con el filtro de la otra aplicado, pero no con el suyo propio.
+        int[] byHoster = index.filterFacet(matches, PostIndex.Facet.HOSTER, hoster);
+        int[] byAuthor = index.filterFacet(matches, PostIndex.Facet.AUTHOR, author);
+        Map<String, Integer> hosterCounts = index.facetCounts(byAuthor, PostIndex.Facet.HOSTER);
+        Map<String, Integer> authorCounts = index.facetCounts(byHoster, PostIndex.Facet.AUTHOR);
+        int[] filtered = index.filterFacet(byHoster, PostIndex.Facet.AUTHOR, author);
+
+        Post[] filteredPosts = new Post[filtered.length];
+        for (int i = 0; i < filtered.length; i++) {
+            filteredPosts[i] = index.get(filtered[i]);
         }
 
-        if (post.getDownloadLinks() != null) {
-            for (String link : post.getDownloadLinks()) {
-                if (link.toLowerCase().contains(searchText)) {
-                    return true;
-                }
+        updateListModel(filteredPosts, index.size(), hosterCounts, byAuthor.length, authorCounts, byHoster.length,
+                generation);
+    }
+
+    private void updateListModel(Post[] postsToShow, int totalPosts, Map<String, Integer> hosterCounts,
+            int hosterTotal, Map<String, Integer> authorCounts, int authorTotal, long generation) {
+        SwingUtilities.invokeLater(() -> {
+            if (generation != filterGeneration.get()) {
+                return;
             }
-        }
+            listModel.setPosts(postsToShow);
+            postCountLabel.setText(formatPostCount(listModel.getSize(), totalPosts, hosterCounts));
+            if (facetListener != null) {
+                facetListener.facetsUpdated(hosterCounts, hosterTotal, authorCounts, authorTotal);
+            }
+        });
+    }
 
-        return false;
+    private static String formatPostCount(int shown, int total, Map<String, Integer> hosterCounts) {
+        StringBuilder sb = new StringBuilder("Posts: ").append(shown).append(" / ").append(total);
+        Iterator<Map.Entry<String, Integer>> it = hosterCounts.entrySet().iterator();
+        for (int i = 0; i < 3 && it.hasNext(); i++) {
+            Map.Entry<String, Integer> entry = it.next();
+            sb.append(i == 0 ? "   |   " : " · ").append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        return sb.toString();
     }
 
-    public void deleteSelectedPosts(JList<Post> postsList) throws Exception {
+    // Borra en segundo plano; si posts.json no se puede reescribir se avisa a errorListener.
+    public void deleteSelectedPosts(JList<Post> postsList) {
         int[] indices = postsList.getSelectedIndices();
         if (indices.length == 0)
             return;
 
         List<Post> toRemove = new ArrayList<>();
         for (int i : indices) {
-            if (i >= 0 && i < listModel.size()) {
-                toRemove.add(listModel.get(i));
+            if (i >= 0 && i < listModel.getSize()) {
+                toRemove.add(listModel.getElementAt(i));
             }
         }
 
-        for (Post p : toRemove) {
-            allPosts.remove(p);
-            if (p.getId() != null) {
-                existingIds.remove(p.getId());
+        filterExecutor.execute(() -> {
+            Set<Post> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Post p : toRemove) {
+                if (index.remove(p)) {
+                    removed.add(p);
+                    postIds.remove(p.getId());
+                }
             }
-        }
+            allPosts.removeIf(removed::contains);
+            indexVersion++;
+        });
 
         applyCurrentFilter();
-
-        savePostsToJson();
+        filterExecutor.execute(this::savePostsToJson);
     }
 
-    private void savePostsToJson() throws Exception {
-        JsonUtils.saveAllPosts(allPosts);
+    private void savePostsToJson() {
+        if (!JsonUtils.saveAllPosts(getAllPosts())) {
+            SwingUtilities.invokeLater(() -> errorListener
+                    .accept("Could not save posts.json, the deleted posts will be back on restart"));
+        }
     }
 
     public List<Post> getAllPosts() {
-        return new ArrayList<>(allPosts);
+        synchronized (allPosts) {
+            return new ArrayList<>(allPosts);
+        }
     }
 
     public int getTotalPostsCount() {
@@ -165,12 +240,10 @@ public class PostManager {
     }
 
     public int getFilteredPostsCount() {
-        return listModel.size();
+        return listModel.getSize();
     }
 
     public void clearAllPosts() {
-        allPosts.clear();
-        existingIds.clear();
-        updateListModel(new ArrayList<>());
+        updatePosts(null);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package makinamania;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// Reintentos de páginas que fallan: espera exponencial con jitter y un tope de intentos.
+// Tras el fallo n se espera un tiempo aleatorio entre la mitad y el total de base * 2^(n-1),
+// sin pasar de maxDelayMs, para que varias páginas caídas a la vez no vuelvan juntas.
+public class RetryPolicy {
+    public static final int DEFAULT_MAX_ATTEMPTS = 4;
+    public static final long DEFAULT_BASE_DELAY_MS = 2000;
+    public static final long DEFAULT_MAX_DELAY_MS = 60000;
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public RetryPolicy() {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY_MS, DEFAULT_MAX_DELAY_MS);
+    }
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = Math.max(1, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    // failedAttempts: intentos ya hechos y fallidos (incluido el primero).
+    public boolean shouldRetry(int failedAttempts) {
+        return failedAttempts < maxAttempts;
+    }
+
+    public long delayMs(int failedAttempts) {
+        int exponent = Math.min(Math.max(0, failedAttempts - 1), 20);
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << exponent);
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+}
@@ -0,0 +1,674 @@
+package makinamania;
+
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Estado de un scraping: configuración HTTP, caché de Discogs, token de parada y métricas.
+// Varias sesiones pueden trabajar a la vez en la misma JVM sin pisarse; los métodos estáticos
+// de MakinamaniaScraper delegan en la sesión por defecto.
+public class ScraperSession {
+    public static final String DEFAULT_USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
+    public static final int DEFAULT_BOARD_TIMEOUT_MS = 15000;
+    public static final int DEFAULT_PAGE_TIMEOUT_MS = 10000;
+    public static final int DEFAULT_DISCOGS_DELAY_MS = 500;
+    public static final int DEFAULT_BOARD_CONCURRENCY = 4;
+
+    // Recibe en orden los topics de cada página de board leída.
+    public interface BoardPageConsumer {
+        void accept(int page, List<MakinamaniaScraper.TopicInfo> topics);
+    }
+
+    private static final ScraperSession DEFAULT = new ScraperSession(CrawlMetrics.global());
+    private static final Pattern CHARSET = Pattern.compile("(?i)charset=\"?([^\";\\s]+)");
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofMillis(DEFAULT_BOARD_TIMEOUT_MS))
+            .build();
+
+    private final CrawlMetrics metrics;
+    private final CancellationToken cancellation = new CancellationToken();
+    private final Map<String, String> discogsCache = new ConcurrentHashMap<>();
+    private final Object discogsSlotLock = new Object();
+    private long nextDiscogsSlotNanos = System.nanoTime();
+
+    private volatile String userAgent = DEFAULT_USER_AGENT;
+    private volatile int boardTimeoutMs = DEFAULT_BOARD_TIMEOUT_MS;
+    private volatile int pageTimeoutMs = DEFAULT_PAGE_TIMEOUT_MS;
+    private volatile int discogsDelayMs = DEFAULT_DISCOGS_DELAY_MS;
+    private volatile int boardConcurrency = DEFAULT_BOARD_CONCURRENCY;
+    private volatile KnownPosts knownPosts;
+
+    public ScraperSession() {
+        this(new CrawlMetrics());
+    }
+
+    public ScraperSession(CrawlMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Sesión compartida por la interfaz y los métodos estáticos de MakinamaniaScraper.
+    public static ScraperSession defaultSession() {
+        return DEFAULT;
+    }
+
+    public CrawlMetrics getMetrics() {
+        return metrics;
+    }
+
+    public CancellationToken getCancellation() {
+        return cancellation;
+    }
+
+    // Páginas de listado de un board que se piden a la vez como mucho.
+    public void setBoardConcurrency(int boardConcurrency) {
+        this.boardConcurrency = Math.max(1, boardConcurrency);
+    }
+
+    // Posts que se saltan al scrapear; por defecto los de posts.json (KnownPosts.global()).
+    public void setKnownPosts(KnownPosts knownPosts) {
+        this.knownPosts = knownPosts;
+    }
+
+    private KnownPosts knownPosts() {
+        KnownPosts known = knownPosts;
+        return known != null ? known : KnownPosts.global();
+    }
+
+    public void setUserAgent(String userAgent) {
+        this.userAgent = userAgent;
+    }
+
+    public void setBoardTimeoutMs(int boardTimeoutMs) {
+        this.boardTimeoutMs = boardTimeoutMs;
+    }
+
+    public void setPageTimeoutMs(int pageTimeoutMs) {
+        this.pageTimeoutMs = pageTimeoutMs;
+    }
+
+    public void setDiscogsDelayMs(int discogsDelayMs) {
+        this.discogsDelayMs = Math.max(0, discogsDelayMs);
+    }
+
+    // Marca el scraping de esta sesión para que se detenga.
+    public void stop() {
+        cancellation.cancel();
+    }
+
+    // Reinicia el estado de parada de esta sesión.
+    public void reset() {
+        cancellation.reset();
+    }
+
+    // Indica si se ha solicitado detener el scraping de esta sesión.
+    public boolean stopRequested() {
+        return cancellation.isCancelled();
+    }
+
+    // Descarga una página genérica y devuelve el documento.
+    private Document fetchPage(String url, int timeoutMs) throws IOException {
+        String cleanUrl = MakinamaniaScraper.normalizeId(url);
+        CrawlEvents.Fetch event = new CrawlEvents.Fetch();
+        event.begin();
+        event.url = cleanUrl;
+        try (CrawlMetrics.Sample sample = metrics.start(CrawlMetrics.FETCH_PAGE)) {
+            HttpResponse<byte[]> response = download(cleanUrl, timeoutMs, userAgent);
+            int bytes = response.body().length;
+            metrics.add(CrawlReport.BYTES_DOWNLOADED, bytes);
+            event.status = response.statusCode();
+            event.bytes = bytes;
+            Document doc = parse(response);
+            sample.success();
+            event.outcome = CrawlEvents.OK;
+            return doc;
+        } finally {
+            event.commit();
+        }
+    }
+
+    // GET que se aborta en cuanto se pide parar la sesión, sin esperar al timeout.
+    private HttpResponse<byte[]> download(String cleanUrl, int timeoutMs, String agent) throws IOException {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(cleanUrl))
+                    .timeout(Duration.ofMillis(timeoutMs))
+                    .header("User-Agent", agent)
+                    .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            throw new MalformedURLException(e.getMessage());
+        }
+        HttpResponse<byte[]> response = CancellableHttp.send(HTTP, request, HttpResponse.BodyHandlers.ofByteArray(),
+                cancellation);
+        if (response.statusCode() >= 400) {
+            throw new HttpStatusException("HTTP error fetching URL", response.statusCode(), cleanUrl);
+        }
+        return response;
+    }
+
+    // Parsea la respuesta con el charset de la cabecera o, si no viene, el que declare el HTML.
+    private static Document parse(HttpResponse<byte[]> response) throws IOException {
+        String charset = null;
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        Matcher matcher = CHARSET.matcher(contentType);
+        try {
+            if (matcher.find() && Charset.isSupported(matcher.group(1))) {
+                charset = matcher.group(1);
+            }
+        } catch (IllegalArgumentException e) {
+            // Charset mal escrito en la cabecera: se usa el del HTML.
+        }
+        return Jsoup.parse(new ByteArrayInputStream(response.body()), charset, response.uri().toString());
+    }
+
+    // Descarga una página de board.
+    private Document fetchBoardPage(String boardUrl) throws IOException {
+        return fetchPage(boardUrl, boardTimeoutMs);
+    }
+
+    // Descarga una página de topic.
+    private Document fetchTopicPage(String url) throws IOException {
+        return fetchPage(url, pageTimeoutMs);
+    }
+
+    // Obtiene el número total de páginas de un board.
+    public int getBoardTotalPages(String boardUrl) throws IOException {
+        return MakinamaniaScraper.detectBoardTotalPages(fetchBoardProbe(boardUrl));
+    }
+
+    // Primera página del listado de un board: sirve para contar sus páginas y se reutiliza como página 1.
+    public Document fetchBoardProbe(String boardUrl) throws IOException {
+        return fetchBoardPage(MakinamaniaScraper.buildBoardPageUrl(MakinamaniaScraper.normalizeId(boardUrl), 1));
+    }
+
+    // Resuelve qué páginas de un board se deben usar según el patrón.
+    public List<Integer> resolveBoardPages(String boardUrl, String boardPagesSpec) throws IOException {
+        return resolveBoardPages(fetchBoardProbe(boardUrl), boardPagesSpec);
+    }
+
+    // Igual, a partir de la página 1 ya descargada.
+    public List<Integer> resolveBoardPages(Document probe, String boardPagesSpec) {
+        return MakinamaniaScraper.parsePageSpec(boardPagesSpec, MakinamaniaScraper.detectBoardTotalPages(probe));
+    }
+
+    // Obtiene los topics de una página concreta de un board, con los datos de su fila y la URL normalizada.
+    public List<MakinamaniaScraper.TopicInfo> getTopicsForBoardPage(String boardUrl, int page) throws IOException {
+        String pageUrl = MakinamaniaScraper.buildBoardPageUrl(MakinamaniaScraper.normalizeId(boardUrl), page);
+        return topicsOf(fetchBoardPage(pageUrl));
+    }
+
+    private static List<MakinamaniaScraper.TopicInfo> topicsOf(Document boardPage) {
+        List<MakinamaniaScraper.TopicInfo> topics = new ArrayList<>();
+        for (MakinamaniaScraper.TopicInfo topic : MakinamaniaScraper.extractTopicsWithTitlesFromBoard(boardPage)) {
+            topics.add(new MakinamaniaScraper.TopicInfo(MakinamaniaScraper.normalizeId(topic.url), topic.title,
+                    topic.replies, topic.views, topic.lastPost, topic.pages));
+        }
+        return topics;
+    }
+
+    // Descarga varias páginas de listado a la vez (hasta boardConcurrency) y las entrega en orden al
+    // consumer desde el hilo que llama. Si se pasa la página 1 ya descargada no se vuelve a pedir.
+    // Ante un error se entregan las páginas anteriores a la que falló y se lanza su excepción;
+    // si se pide parar, deja de entregar y vuelve.
+    public void forEachBoardPage(String boardUrl, List<Integer> pages, Document firstPage,
+            BoardPageConsumer consumer) throws IOException {
+        if (pages.isEmpty()) {
+            return;
+        }
+        String cleanBoardUrl = MakinamaniaScraper.normalizeId(boardUrl);
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(boardConcurrency, pages.size()), runnable -> {
+            Thread thread = new Thread(runnable, "board-fetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<List<MakinamaniaScraper.TopicInfo>>> results = new ArrayList<>();
+            for (int page : pages) {
+                if (page == 1 && firstPage != null) {
+                    results.add(CompletableFuture.completedFuture(topicsOf(firstPage)));
+                } else {
+                    results.add(pool.submit(() -> getTopicsForBoardPage(cleanBoardUrl, page)));
+                }
+            }
+
+            for (int i = 0; i < pages.size(); i++) {
+                if (stopRequested()) {
+                    return;
+                }
+                List<MakinamaniaScraper.TopicInfo> topics;
+                try {
+                    topics = results.get(i).get();
+                } catch (ExecutionException e) {
+                    if (stopRequested()) {
+                        return;
+                    }
+                    Throwable cause = e.getCause();
+                    throw cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while reading board pages", e);
+                }
+                consumer.accept(pages.get(i), topics);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Obtiene los topics raíz de un board para páginas concretas, de más a menos valor (TopicScorer).
+    public List<String> getTopicsForBoardPages(String boardUrl, String boardPagesSpec) throws IOException {
+        return getTopicsForBoardPages(boardUrl, boardPagesSpec, TopicFilter.NONE);
+    }
+
+    // Igual, quedándose solo con los topics cuyo título pasa el filtro.
+    public List<String> getTopicsForBoardPages(String boardUrl, String boardPagesSpec, TopicFilter filter)
+            throws IOException {
+        List<String> topicUrls = new ArrayList<>();
+        for (MakinamaniaScraper.TopicInfo topic : getRankedTopics(boardUrl, boardPagesSpec, filter)) {
+            topicUrls.add(topic.url);
+        }
+        return topicUrls;
+    }
+
+    private List<MakinamaniaScraper.TopicInfo> getRankedTopics(String boardUrl, String boardPagesSpec,
+            TopicFilter filter) throws IOException {
+        Document probe = fetchBoardProbe(boardUrl);
+        List<Integer> pages = resolveBoardPages(probe, boardPagesSpec);
+
+        Map<String, MakinamaniaScraper.TopicInfo> topicsByUrl = new LinkedHashMap<>();
+        forEachBoardPage(boardUrl, pages, probe, (page, topics) -> {
+            for (MakinamaniaScraper.TopicInfo topic : topics) {
+                if (filter.accepts(topic.title)) {
+                    topicsByUrl.putIfAbsent(topic.url, topic);
+                }
+            }
+        });
+
+        return TopicScorer.rank(new ArrayList<>(topicsByUrl.values()));
+    }
+
+    // Genera las URLs de páginas de topic para un board.
+    public List<String> getTopicPageUrls(String boardUrl, String boardPagesSpec, String topicPagesSpec)
+            throws IOException {
+        return getTopicPageUrls(boardUrl, boardPagesSpec, topicPagesSpec, TopicFilter.NONE);
+    }
+
+    public List<String> getTopicPageUrls(String boardUrl, String boardPagesSpec, String topicPagesSpec,
+            TopicFilter filter) throws IOException {
+        List<String> topicPageUrls = new ArrayList<>();
+        for (MakinamaniaScraper.TopicInfo topic : getRankedTopics(boardUrl, boardPagesSpec, filter)) {
+            topicPageUrls.addAll(generateTopicPageUrls(topic.url, topicPagesSpec, topic.pages));
+        }
+
+        return topicPageUrls;
+    }
+
+    // Obtiene los topics de un board organizados por página.
+    public List<List<MakinamaniaScraper.TopicInfo>> getTopicsByPageForBoard(String boardUrl, String boardPagesSpec)
+            throws IOException {
+        Document probe = fetchBoardProbe(boardUrl);
+        List<Integer> pages = resolveBoardPages(probe, boardPagesSpec);
+
+        List<List<MakinamaniaScraper.TopicInfo>> topicsByPage = new ArrayList<>();
+        forEachBoardPage(boardUrl, pages, probe, (page, topics) -> topicsByPage.add(topics));
+        return topicsByPage;
+    }
+
+    // Genera las URLs de páginas de topic a partir de una URL de board o de topic.
+    public List<String> resolveTopicPageUrls(String url, String boardPagesSpec, String topicPagesSpec)
+            throws IOException {
+        return resolveTopicPageUrls(url, boardPagesSpec, topicPagesSpec, TopicFilter.NONE);
+    }
+
+    // Igual, aplicando el filtro de títulos a los topics de un board (una URL de topic no se filtra).
+    public List<String> resolveTopicPageUrls(String url, String boardPagesSpec, String topicPagesSpec,
+            TopicFilter filter) throws IOException {
+        if (MakinamaniaScraper.isBoardUrl(url)) {
+            return getTopicPageUrls(url, boardPagesSpec, topicPagesSpec, filter);
+        }
+        return generateTopicPageUrls(url, topicPagesSpec);
+    }
+
+    // Obtiene el número total de páginas de un topic.
+    public int getTopicTotalPages(String topicUrl) {
+        String firstPageUrl = MakinamaniaScraper.constructTopicPageUrl(
+                MakinamaniaScraper.extractTopicBaseUrl(topicUrl), 1);
+
+        try {
+            Document doc = fetchTopicPage(firstPageUrl);
+            Elements pageLinks = MakinamaniaScraper.getTopicPageLinks(doc);
+
+            if (!pageLinks.isEmpty()) {
+                return MakinamaniaScraper.parseTotalPagesFromLinks(pageLinks);
+            }
+
+            return MakinamaniaScraper.parseTotalPagesFromBody(doc);
+        } catch (IOException e) {
+            ConsoleLogger.error("Error obteniendo el número total de páginas: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    // Genera las URLs de páginas de un topic según un patrón.
+    public List<String> generateTopicPageUrls(String topicUrl, String input) {
+        return generateTopicPageUrls(topicUrl, input, -1);
+    }
+
+    // Igual, con el número de páginas ya sacado del listado del board; solo si no se conoce
+    // (knownTotalPages < 1) se pide la primera página del topic para contarlas.
+    public List<String> generateTopicPageUrls(String topicUrl, String input, int knownTotalPages) {
+        int totalPages;
+        if (knownTotalPages > 0) {
+            totalPages = knownTotalPages;
+            metrics.increment(CrawlReport.TOPIC_PAGES_FROM_LISTING);
+        } else {
+            totalPages = getTopicTotalPages(topicUrl);
+            metrics.increment(CrawlReport.TOPIC_PAGES_PROBED);
+        }
+        List<Integer> pages = MakinamaniaScraper.parsePageSpec(input, totalPages);
+
+        String baseUrl = MakinamaniaScraper.extractTopicBaseUrl(topicUrl);
+        List<String> urls = new ArrayList<>();
+
+        for (int page : pages) {
+            urls.add(MakinamaniaScraper.constructTopicPageUrl(baseUrl, page));
+        }
+
+        return urls;
+    }
+
+    // Scrapea los posts válidos de una página del foro.
+    public List<Post> scrapePosts(String url) {
+        try {
+            return scrapePage(url);
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    // Como scrapePosts, pero avisa con IOException si la página no se ha podido descargar o procesar.
+    // Hace de una vez las etapas que el Crawler reparte en su pipeline: descarga, análisis y comprobación.
+    public List<Post> scrapePage(String url) throws IOException {
+        if (stopRequested()) {
+            return new ArrayList<>();
+        }
+        Document doc = fetchPostsPage(url);
+        return verifyPosts(url, parsePostsPage(url, doc));
+    }
+
+    // Etapa de descarga de una página de posts.
+    public Document fetchPostsPage(String url) throws IOException {
+        try {
+            return fetchPage(url, pageTimeoutMs);
+        } catch (Exception e) {
+            throw pageFailed(url, e);
+        }
+    }
+
+    // Etapa de análisis: los posts de la página con enlaces de descarga, sin comprobar nada por red.
+    public List<Post> parsePostsPage(String url, Document doc) throws IOException {
+        try {
+            return extractPostsFromDocument(doc);
+        } catch (Exception e) {
+            throw pageFailed(url, e);
+        }
+    }
+
+    // Etapa de comprobación: se quedan los posts con algún enlace activo y se les buscan los discos
+    // en Discogs. Con esto la página cuenta como scrapeada.
+    public List<Post> verifyPosts(String url, List<Post> candidates) throws IOException {
+        List<Post> posts = new ArrayList<>();
+        try {
+            for (Post post : candidates) {
+                if (stopRequested()) {
+                    break;
+                }
+                if (hasActiveLinks(post.getDownloadLinks(), post.getHoster())) {
+                    post.setLinkAlive(true);
+                    post.setLastChecked(System.currentTimeMillis());
+                    post.setAlbumTitles(extractAlbumTitles(post.getDiscogs()));
+                    posts.add(post);
+                }
+            }
+        } catch (Exception e) {
+            throw pageFailed(url, e);
+        }
+        metrics.increment(CrawlReport.PAGES_SCRAPED);
+        return posts;
+    }
+
+    // Una página cortada por la parada no cuenta como fallo.
+    private IOException pageFailed(String url, Exception e) {
+        if (stopRequested()) {
+            return e instanceof InterruptedIOException ? (InterruptedIOException) e
+                    : new InterruptedIOException("Stop requested");
+        }
+        metrics.increment(CrawlReport.PAGES_FAILED);
+        ConsoleLogger.error("Error scraping URL: " + MakinamaniaScraper.normalizeId(url) + " - " + e.getMessage());
+        return e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
+    }
+
+    // Extrae los posts con enlaces de un documento HTML. Los que ya están guardados se saltan antes
+    // de comprobar enlaces o consultar Discogs.
+    private List<Post> extractPostsFromDocument(Document doc) {
+        List<Post> posts = new ArrayList<>();
+        KnownPosts known = knownPosts();
+
+        for (Element element : doc.select("div.post")) {
+            if (stopRequested()) {
+                break;
+            }
+
+            if (known.contains(MakinamaniaScraper.extractId(element))) {
+                metrics.increment(CrawlReport.POSTS_KNOWN);
+                continue;
+            }
+
+            Post post = parsePostHtml(element);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+
+        return posts;
+    }
+
+    // Convierte un elemento HTML en un objeto Post.
+    public Post parsePost(Element post) {
+        Post parsed = parsePostHtml(post);
+        if (parsed != null) {
+            parsed.setAlbumTitles(extractAlbumTitles(parsed.getDiscogs()));
+        }
+        return parsed;
+    }
+
+    // Como parsePost, pero sin buscar los discos en Discogs.
+    private Post parsePostHtml(Element post) {
+        Post parsed;
+        CrawlEvents.Parse event = new CrawlEvents.Parse();
+        event.begin();
+        // La búsqueda en Discogs se mide aparte: aquí solo cuenta la extracción del HTML.
+        try (CrawlMetrics.Sample sample = metrics.start(CrawlMetrics.PARSE_POST)) {
+            List<String> downloadLinks = MakinamaniaScraper.extractDownloadLinks(post);
+
+            if (downloadLinks.isEmpty()) {
+                sample.success();
+                event.outcome = "no-links";
+                return null;
+            }
+
+            String hoster = MakinamaniaScraper.extractHoster(downloadLinks);
+            List<String> discogsLinks = MakinamaniaScraper.extractDiscogsLinks(post);
+            event.hoster = hoster;
+            event.links = downloadLinks.size();
+
+            parsed = new Post(
+                    MakinamaniaScraper.extractId(post),
+                    MakinamaniaScraper.extractReference(post),
+                    MakinamaniaScraper.extractAuthor(post),
+                    post.text(),
+                    MakinamaniaScraper.extractQuotes(post),
+                    downloadLinks,
+                    discogsLinks,
+                    MakinamaniaScraper.extractImages(post),
+                    null,
+                    hoster,
+                    false
+            );
+            sample.success();
+            event.url = parsed.getId();
+            event.outcome = CrawlEvents.OK;
+        } finally {
+            event.commit();
+        }
+        return parsed;
+    }
+
+    // Comprueba si una lista de enlaces contiene alguno activo.
+    private boolean hasActiveLinks(List<String> downloadLinks, String hoster) {
+        for (String link : downloadLinks) {
+            if (stopRequested()) {
+                return false;
+            }
+            if (Checker.checkLink(link, hoster, metrics, cancellation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Indica si un post añade contenido nuevo.
+    public boolean addsNewContent(Post post) {
+        List<String> quoteLinks = getQuoteDownloadLinks(post.getQuotes());
+        return post.getDownloadLinks().stream()
+                .anyMatch(link -> !quoteLinks.contains(link));
+    }
+
+    // Obtiene los enlaces de descarga de la primera cita referenciada.
+    private List<String> getQuoteDownloadLinks(List<String> quoteUrls) {
+        if (quoteUrls.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        try {
+            Document doc = fetchPage(quoteUrls.get(0), pageTimeoutMs);
+            Element post = doc.selectFirst("div.post");
+            return post != null ? MakinamaniaScraper.extractDownloadLinks(post) : new ArrayList<>();
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    // Extrae títulos de álbum desde enlaces de Discogs.
+    public List<String> extractAlbumTitles(List<String> discogsLinks) {
+        return discogsLinks.stream()
+                .map(this::getDiscogsTitle)
+                .filter(Objects::nonNull)
+                .filter(title -> !title.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    // Obtiene el título de un álbum desde un enlace de Discogs.
+    private String getDiscogsTitle(String link) {
+        CrawlEvents.Discogs event = new CrawlEvents.Discogs();
+        event.begin();
+        event.url = link;
+        try {
+            String cached = discogsCache.get(link);
+            if (cached != null) {
+                metrics.increment("discogs.cacheHit");
+                event.source = "cache";
+                event.outcome = CrawlEvents.OK;
+                return cached;
+            }
+
+            String title = MakinamaniaScraper.extractTitleFromDiscogsUrl(link);
+            event.source = "url";
+
+            if (title == null) {
+                event.source = "web";
+                try {
+                    if (awaitDiscogsSlot()) {
+                        try (CrawlMetrics.Sample sample = metrics.start(CrawlMetrics.DISCOGS)) {
+                            title = fetchDiscogsTitleFromWeb(link);
+                            if (title != null) {
+                                sample.success();
+                            }
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            if (title != null && !title.isEmpty()) {
+                discogsCache.put(link, title);
+            }
+
+            event.outcome = title != null ? CrawlEvents.OK : "not-found";
+            return title;
+        } catch (Exception e) {
+            return null;
+        } finally {
+            event.commit();
+        }
+    }
+
+    // Reserva el siguiente hueco libre para pedir a Discogs y espera a que llegue: todos los hilos de la
+    // sesión comparten el mismo reloj, así que las peticiones salen separadas discogsDelayMs por muchos
+    // verificadores que haya. Devuelve false si se para el scraping mientras espera.
+    private boolean awaitDiscogsSlot() throws InterruptedException {
+        long waitNanos;
+        synchronized (discogsSlotLock) {
+            long now = System.nanoTime();
+            long slot = nextDiscogsSlotNanos - now > 0 ? nextDiscogsSlotNanos : now;
+            nextDiscogsSlotNanos = slot + TimeUnit.MILLISECONDS.toNanos(discogsDelayMs);
+            waitNanos = slot - now;
+        }
+        return cancellation.sleep(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+    }
+
+    // Obtiene el título del álbum haciendo scraping en Discogs.
+    private String fetchDiscogsTitleFromWeb(String url) throws IOException {
+        Document doc = parse(download(MakinamaniaScraper.normalizeId(url), pageTimeoutMs, "Mozilla/5.0"));
+
+        Element h1 = doc.selectFirst("h1.MuiTypography-headLineXL.title_Brnd1");
+        if (h1 != null) {
+            String fullText = h1.text();
+            String[] parts = fullText.split("–");
+            return parts.length > 1 ? parts[1].trim() : fullText.trim();
+        }
+        return null;
+    }
+}
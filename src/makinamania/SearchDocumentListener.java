@@ -6,12 +6,14 @@ import javax.swing.Timer;
 
 public class SearchDocumentListener implements DocumentListener {
     private final PostManager postManager;
+    private static final int DEBOUNCE_MS = 100;
+
     private final Timer debounceTimer;
 
     public SearchDocumentListener(PostManager postManager) {
         this.postManager = postManager;
 
-        debounceTimer = new Timer(1000, e -> postManager.applyCurrentFilter());
+        debounceTimer = new Timer(DEBOUNCE_MS, e -> postManager.applyCurrentFilter());
         debounceTimer.setRepeats(false);
     }
 
@@ -0,0 +1,120 @@
+package makinamania;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Comprobación de que parar un scraping deja todo quieto enseguida, aunque haya peticiones colgadas.
+// Levanta un HttpServer local que nunca contesta, lanza un Crawler contra él, lo para y mide cuánto
+// tarda en volver; lo mismo con una comprobación de enlace de Checker. Sale con 1 si algo pasa de
+// MAX_STOP_MS. No escribe nada: las páginas cortadas por la parada no se marcan como escaneadas.
+//
+// Uso: java -cp "bin:lib/*" makinamania.StopLatencyCheck
+public class StopLatencyCheck {
+    private static final long MAX_STOP_MS = 1000;
+    private static final int ROUNDS = 3;
+    private static final int PAGES = 50;
+    private static final int THREADS = 3;
+    private static final long RUN_BEFORE_STOP_MS = 700;
+
+    public static void main(String[] args) throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService handlers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stop-check-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(handlers);
+        server.createContext("/", exchange -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                exchange.sendResponseHeaders(503, -1);
+            } catch (IOException ignored) {
+                // El cliente ya ha abortado la petición.
+            }
+            exchange.close();
+        });
+        server.start();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        boolean passed = true;
+        try {
+            for (int round = 1; round <= ROUNDS; round++) {
+                passed &= report("crawl round " + round, crawlStopMs(base + "/index.php/topic," + round + "."));
+            }
+            passed &= report("link check", checkStopMs(base + "/file"));
+        } finally {
+            release.countDown();
+            server.stop(0);
+            handlers.shutdownNow();
+        }
+
+        if (passed) {
+            ConsoleLogger.success("Stop-to-idle under " + MAX_STOP_MS + " ms");
+        } else {
+            ConsoleLogger.error("Stop-to-idle over " + MAX_STOP_MS + " ms");
+        }
+        ConsoleLogger.flush(2000);
+        System.exit(passed ? 0 : 1);
+    }
+
+    // Milisegundos desde cancel() hasta que crawl() devuelve, con todas las páginas colgadas.
+    private static long crawlStopMs(String topicBaseUrl) throws InterruptedException {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < PAGES; i++) {
+            urls.add(topicBaseUrl + (i * 15) + ".html");
+        }
+        Crawler crawler = new Crawler(new ScraperSession(new CrawlMetrics()), (url, posts, processed, total) -> {
+        }, THREADS);
+        Thread crawl = new Thread(() -> {
+            try {
+                crawler.crawl(urls);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "stop-check-crawl");
+        crawl.start();
+        Thread.sleep(RUN_BEFORE_STOP_MS);
+
+        long start = System.nanoTime();
+        crawler.cancel();
+        crawl.join(TimeUnit.SECONDS.toMillis(30));
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    // Milisegundos desde cancel() hasta que una comprobación de enlace colgada devuelve.
+    private static long checkStopMs(String url) throws InterruptedException {
+        CancellationToken cancellation = new CancellationToken();
+        Thread check = new Thread(() -> Checker.checkLinkStatus(url, "mediafire", new CrawlMetrics(), cancellation),
+                "stop-check-link");
+        check.start();
+        Thread.sleep(RUN_BEFORE_STOP_MS);
+
+        long start = System.nanoTime();
+        cancellation.cancel();
+        check.join(TimeUnit.SECONDS.toMillis(30));
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static boolean report(String name, long stopMs) {
+        boolean passed = stopMs < MAX_STOP_MS;
+        String message = name + ": idle " + stopMs + " ms after stop";
+        if (passed) {
+            ConsoleLogger.info(message);
+        } else {
+            ConsoleLogger.error(message);
+        }
+        return passed;
+    }
+}
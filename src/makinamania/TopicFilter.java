@@ -0,0 +1,99 @@
+package makinamania;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// Filtro de topics por título que se aplica al leer el listado del board, antes de pedir
+// ninguna página de topic. Las palabras se comparan sin mayúsculas ni tildes: basta con que
+// aparezca una de las incluidas (si hay alguna) y ninguna de las excluidas; la regex, si hay,
+// tiene que encontrarse en el título. Con skipRequests se descartan los hilos de peticiones.
+public class TopicFilter {
+    public static final TopicFilter NONE = new TopicFilter(new ArrayList<>(), new ArrayList<>(), null, false);
+
+    private static final Pattern REQUEST_TITLE = Pattern.compile(
+            "^\\W*(peticion(es)?|pido|busco|se busca|alguien tiene|request|req)\\b"
+                    + "|[\\[(](peticion(es)?|pido|busco|request|req)[\\])]");
+
+    private final List<String> includeKeywords;
+    private final List<String> excludeKeywords;
+    private final Pattern titlePattern;
+    private final boolean skipRequests;
+
+    private TopicFilter(List<String> includeKeywords, List<String> excludeKeywords, Pattern titlePattern,
+            boolean skipRequests) {
+        this.includeKeywords = includeKeywords;
+        this.excludeKeywords = excludeKeywords;
+        this.titlePattern = titlePattern;
+        this.skipRequests = skipRequests;
+    }
+
+    // Crea el filtro a partir de listas separadas por comas; lanza IllegalArgumentException si la regex no es válida.
+    public static TopicFilter of(String include, String exclude, String regex, boolean skipRequests) {
+        Pattern titlePattern = regex == null || regex.trim().isEmpty() ? null
+                : Pattern.compile(regex.trim(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        TopicFilter filter = new TopicFilter(keywords(include), keywords(exclude), titlePattern, skipRequests);
+        return filter.isEmpty() ? NONE : filter;
+    }
+
+    public boolean isEmpty() {
+        return includeKeywords.isEmpty() && excludeKeywords.isEmpty() && titlePattern == null && !skipRequests;
+    }
+
+    public boolean accepts(String title) {
+        if (isEmpty()) {
+            return true;
+        }
+        String text = fold(title != null ? title : "");
+        if (skipRequests && REQUEST_TITLE.matcher(text).find()) {
+            return false;
+        }
+        for (String keyword : excludeKeywords) {
+            if (text.contains(keyword)) {
+                return false;
+            }
+        }
+        if (titlePattern != null && !titlePattern.matcher(title != null ? title : "").find()) {
+            return false;
+        }
+        if (includeKeywords.isEmpty()) {
+            return true;
+        }
+        for (String keyword : includeKeywords) {
+            if (text.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Descripción estable del filtro, para distinguir fronteras e informes de crawls con filtros distintos.
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "";
+        }
+        return "include=" + String.join(",", includeKeywords) + ";exclude=" + String.join(",", excludeKeywords)
+                + ";regex=" + (titlePattern != null ? titlePattern.pattern() : "") + ";skipRequests=" + skipRequests;
+    }
+
+    private static List<String> keywords(String list) {
+        List<String> result = new ArrayList<>();
+        if (list == null) {
+            return result;
+        }
+        for (String keyword : list.split(",")) {
+            String folded = fold(keyword.trim());
+            if (!folded.isEmpty()) {
+                result.add(folded);
+            }
+        }
+        return result;
+    }
+
+    // Minúsculas y sin tildes, para que "Petición" y "peticion" cuenten igual.
+    private static String fold(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase();
+    }
+}
@@ -0,0 +1,50 @@
+package makinamania;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Valor estimado de un topic a partir de su fila en el listado del board, para scrapear primero
+// lo más interesante y que una parada temprana deje los mejores resultados: visitas y respuestas
+// en escala logarítmica, actividad reciente (vale la mitad cada RECENCY_HALF_LIFE_DAYS) y un extra
+// si el título menciona un hoster de descargas. Lo que la fila no trae simplemente no suma.
+public class TopicScorer {
+    private static final double VIEWS_WEIGHT = 1.0;
+    private static final double REPLIES_WEIGHT = 1.5;
+    private static final double RECENCY_WEIGHT = 6.0;
+    private static final double RECENCY_HALF_LIFE_DAYS = 180;
+    private static final double HOSTER_TITLE_BONUS = 3.0;
+
+    public static double score(MakinamaniaScraper.TopicInfo topic) {
+        double score = 0;
+        if (topic.views > 0) {
+            score += VIEWS_WEIGHT * Math.log1p(topic.views);
+        }
+        if (topic.replies > 0) {
+            score += REPLIES_WEIGHT * Math.log1p(topic.replies);
+        }
+        if (topic.lastPost != null) {
+            long days = Math.max(0, ChronoUnit.DAYS.between(topic.lastPost, LocalDate.now()));
+            score += RECENCY_WEIGHT * Math.pow(0.5, days / RECENCY_HALF_LIFE_DAYS);
+        }
+        if (MakinamaniaScraper.mentionsHoster(topic.title)) {
+            score += HOSTER_TITLE_BONUS;
+        }
+        return score;
+    }
+
+    // Ordena de más a menos valor; a igualdad se mantiene el orden del listado.
+    public static List<MakinamaniaScraper.TopicInfo> rank(List<MakinamaniaScraper.TopicInfo> topics) {
+        Map<MakinamaniaScraper.TopicInfo, Double> scores = new IdentityHashMap<>();
+        for (MakinamaniaScraper.TopicInfo topic : topics) {
+            scores.put(topic, score(topic));
+        }
+        List<MakinamaniaScraper.TopicInfo> ranked = new ArrayList<>(topics);
+        ranked.sort(Comparator.comparingDouble((MakinamaniaScraper.TopicInfo topic) -> scores.get(topic)).reversed());
+        return ranked;
+    }
+}
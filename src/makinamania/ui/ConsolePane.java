@@ -0,0 +1,127 @@
+package makinamania.ui;
+
+import makinamania.ConsoleLogger;
+
+import javax.swing.*;
+import javax.swing.Timer;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyledDocument;
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Consola de depuración con límite de líneas: los mensajes se encolan desde cualquier hilo
+// y se vuelcan al documento en un único lote por frame.
+public class ConsolePane extends JTextPane {
+    private static final long serialVersionUID = 1L;
+    public static final int DEFAULT_MAX_LINES = Integer.getInteger("makinamania.console.maxLines", 5000);
+    private static final int FRAME_MS = 40;
+
+    private static final AttributeSet DEFAULT_STYLE = new SimpleAttributeSet();
+    private static final AttributeSet SUCCESS_STYLE = colored(new Color(0, 150, 0));
+    private static final AttributeSet ERROR_STYLE = colored(Color.RED);
+    private static final AttributeSet WARN_STYLE = colored(new Color(150, 100, 0));
+    private static final AttributeSet START_STYLE = colored(Color.BLUE);
+
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Deque<Integer> lineLengths = new ArrayDeque<>();
+    private final Timer drainTimer;
+    private volatile int maxLines;
+
+    public ConsolePane() {
+        this(DEFAULT_MAX_LINES);
+    }
+
+    public ConsolePane(int maxLines) {
+        this.maxLines = Math.max(1, maxLines);
+        setEditable(false);
+        setFont(new Font("Monospaced", Font.PLAIN, 12));
+
+        drainTimer = new Timer(FRAME_MS, e -> drain());
+        drainTimer.start();
+    }
+
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    public void setMaxLines(int maxLines) {
+        this.maxLines = Math.max(1, maxLines);
+    }
+
+    // Encola un mensaje; si la cola supera el límite se descartan los más antiguos, que no llegarían a verse.
+    public void append(String message) {
+        pending.add(message);
+        if (pendingCount.incrementAndGet() > maxLines && pending.poll() != null) {
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    private void drain() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        StyledDocument doc = getStyledDocument();
+        StringBuilder run = new StringBuilder();
+        AttributeSet runStyle = null;
+
+        try {
+            String message;
+            while ((message = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                AttributeSet style = styleFor(message);
+                if (runStyle != null && style != runStyle) {
+                    doc.insertString(doc.getLength(), run.toString(), runStyle);
+                    run.setLength(0);
+                }
+                runStyle = style;
+                run.append(message).append('\n');
+                lineLengths.addLast(message.length() + 1);
+            }
+            if (run.length() > 0) {
+                doc.insertString(doc.getLength(), run.toString(), runStyle);
+            }
+            trim(doc);
+        } catch (BadLocationException e) {
+            ConsoleLogger.error("Console update failed: " + e.getMessage());
+        }
+        setCaretPosition(doc.getLength());
+    }
+
+    private void trim(StyledDocument doc) throws BadLocationException {
+        int excess = 0;
+        while (lineLengths.size() > maxLines) {
+            excess += lineLengths.pollFirst();
+        }
+        if (excess > 0) {
+            doc.remove(0, Math.min(excess, doc.getLength()));
+        }
+    }
+
+    private static AttributeSet styleFor(String message) {
+        if (message.contains("[SUCCESS]")) {
+            return SUCCESS_STYLE;
+        } else if (message.contains("[ERROR]")) {
+            return ERROR_STYLE;
+        } else if (message.contains("[WARN]")) {
+            return WARN_STYLE;
+        } else if (message.contains("[START]")) {
+            return START_STYLE;
+        }
+        return DEFAULT_STYLE;
+    }
+
+    private static AttributeSet colored(Color color) {
+        SimpleAttributeSet style = new SimpleAttributeSet();
+        StyleConstants.setForeground(style, color);
+        return style;
+    }
+}
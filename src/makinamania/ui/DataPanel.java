@@ -1,28 +1,94 @@
 package makinamania.ui;
 
+import makinamania.ConsoleLogger;
+import makinamania.CrawlMetrics;
 import makinamania.JsonUtils;
+import makinamania.LinkRevalidator;
 import makinamania.Post;
+import makinamania.PostListModel;
 import makinamania.PostManager;
 import makinamania.SearchDocumentListener;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.event.HyperlinkEvent;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
+import javax.swing.text.html.HTMLDocument;
+import javax.swing.text.html.HTMLEditorKit;
 import java.awt.*;
+import java.io.StringReader;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 public class DataPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+
     private JList<Post> postsList;
-    private DefaultListModel<Post> listModel;
+    private PostListModel listModel;
     private JEditorPane postDetailsArea;
     private JLabel postCountLabel;
     private JTextField searchField;
+    private JComboBox<String> hosterComboBox;
+    private JComboBox<String> authorComboBox;
     private PostManager postManager;
+    private LinkRevalidator revalidator;
+
+    private Map<String, Integer> hosterCounts = Collections.emptyMap();
+    private Map<String, Integer> authorCounts = Collections.emptyMap();
+    private int hosterTotal;
+    private int authorTotal;
+    private boolean updatingAuthors;
+    private boolean authorsPending;
+
+    // Detalles ya maquetados por post, construidos fuera del EDT; solo se accede desde el EDT.
+    // Cada entrada recuerda el Post del que salió: tras recargar, los posts son otros objetos y
+    // la entrada ya no vale. Los documentos de la caché nunca se modifican.
+    private final Map<String, CachedDetails> detailsCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedDetails> eldest) {
+            return size() > DETAILS_CACHE_SIZE;
+        }
+    };
+    private final ExecutorService detailsExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "post-details");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile long detailsGeneration;
+    private String expandedPostId;
+    private List<Post> selectedPosts = Collections.emptyList();
+    private boolean restoringSelection;
+
+    private static final String ALL = "Todos";
+    private static final String SHOW_MORE_LINK = "show-more";
+    private static final int DETAILS_CACHE_SIZE = 32;
+    private static final int DETAILS_TEXT_LIMIT = 4000;
+    private static final int DETAILS_LINKS_LIMIT = 40;
+    private static final DateTimeFormatter LINK_CHECK_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneId.systemDefault());
 
     private static final List<String> HOSTERS = Arrays.asList("swisstransfer", "mega.nz", "terabox", "mediafire",
             "rapidgator", "drive", "dropbox", "wetransfer");
 
+    private static final Post PROTOTYPE_POST = new Post(null, null, null, null, null, null, null, null,
+            List.of("Recopilatorio Makina Vol. 1 (2003) 3 CD's WAV"), null, false);
+
     public DataPanel(PostManager pm) {
         initializeUI();
         if (pm != null) {
@@ -30,7 +96,7 @@ public class DataPanel extends JPanel {
         }
     }
 
-    public DefaultListModel<Post> getListModel() {
+    public PostListModel getListModel() {
         return listModel;
     }
 
@@ -47,6 +113,11 @@ public class DataPanel extends JPanel {
         if (searchField != null) {
             searchField.getDocument().addDocumentListener(new SearchDocumentListener(postManager));
         }
+        postManager.setFacetListener(this::updateFacets);
+        postManager.setErrorListener(message -> JOptionPane.showMessageDialog(this, "Error deleting posts: " + message,
+                "Delete Error", JOptionPane.ERROR_MESSAGE));
+        revalidator = new LinkRevalidator(postManager::getAllPosts, CrawlMetrics.global());
+        revalidator.setUpdateListener(post -> SwingUtilities.invokeLater(() -> linkStatusChanged(post)));
     }
 
     private void initializeUI() {
@@ -85,6 +156,20 @@ public class DataPanel extends JPanel {
         deleteButton.addActionListener(e -> deleteSelectedPosts());
         toolBar.add(deleteButton);
 
+        JToggleButton revalidateButton = new JToggleButton("Revalidate Links");
+        revalidateButton.setToolTipText("Re-check the download links of stored posts in the background, "
+                + "oldest checks first and a few requests per hoster at a time");
+        revalidateButton.addActionListener(e -> {
+            if (revalidator == null)
+                return;
+            if (revalidateButton.isSelected()) {
+                revalidator.start();
+            } else {
+                revalidator.stop();
+            }
+        });
+        toolBar.add(revalidateButton);
+
         JPanel rightPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         JLabel searchLabel = new JLabel("Search:");
@@ -92,22 +177,53 @@ public class DataPanel extends JPanel {
         searchField = new JTextField(20);
         searchPanel.add(searchField);
 
-        JComboBox<String> hosterComboBox = new JComboBox<>();
-        hosterComboBox.addItem("Todos");
+        hosterComboBox = new JComboBox<>();
+        hosterComboBox.addItem(ALL);
         for (String hoster : HOSTERS)
             hosterComboBox.addItem(hoster);
         hosterComboBox.setMaximumSize(new Dimension(150, 25));
+        hosterComboBox.setRenderer(new FacetCountRenderer(() -> hosterCounts, () -> hosterTotal));
         hosterComboBox.addActionListener(e -> {
             if (postManager == null)
                 return;
             String selected = (String) hosterComboBox.getSelectedItem();
             if (selected == null)
                 return;
-            postManager.filterPostsByHoster("Todos".equals(selected) ? "" : selected);
+            postManager.filterPostsByHoster(ALL.equals(selected) ? "" : selected);
+        });
+
+        authorComboBox = new JComboBox<>(new String[] { ALL });
+        authorComboBox.setPrototypeDisplayValue("XXXXXXXXXXXXXXXXXXXX (99999)");
+        authorComboBox.setRenderer(new FacetCountRenderer(() -> authorCounts, () -> authorTotal));
+        authorComboBox.addActionListener(e -> {
+            if (postManager == null || updatingAuthors)
+                return;
+            String selected = (String) authorComboBox.getSelectedItem();
+            if (selected == null)
+                return;
+            postManager.filterPostsByAuthor(ALL.equals(selected) ? "" : selected);
+        });
+        // Con la lista desplegada no se cambia el modelo (la cerraría); se rehace al plegarla.
+        authorComboBox.addPopupMenuListener(new PopupMenuListener() {
+            @Override
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+            }
+
+            @Override
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+                if (authorsPending) {
+                    SwingUtilities.invokeLater(DataPanel.this::rebuildAuthorModel);
+                }
+            }
+
+            @Override
+            public void popupMenuCanceled(PopupMenuEvent e) {
+            }
         });
 
         rightPanel.add(searchPanel);
         rightPanel.add(hosterComboBox);
+        rightPanel.add(authorComboBox);
 
         controlsPanel.add(toolBar, BorderLayout.WEST);
         controlsPanel.add(rightPanel, BorderLayout.EAST);
@@ -118,12 +234,79 @@ public class DataPanel extends JPanel {
         return panel;
     }
 
+    // Recibe los recuentos del último filtrado. Los combos pintan los números al vuelo, así que basta
+    // con repintar; el modelo de autores solo se rehace si cambian los autores o su orden.
+    private void updateFacets(Map<String, Integer> newHosterCounts, int newHosterTotal,
+            Map<String, Integer> newAuthorCounts, int newAuthorTotal) {
+        boolean sameAuthors = new ArrayList<>(authorCounts.keySet()).equals(new ArrayList<>(newAuthorCounts.keySet()));
+        hosterCounts = newHosterCounts;
+        hosterTotal = newHosterTotal;
+        authorCounts = newAuthorCounts;
+        authorTotal = newAuthorTotal;
+        hosterComboBox.repaint();
+        authorComboBox.repaint();
+        if (sameAuthors && !authorsPending) {
+            return;
+        }
+        if (authorComboBox.isPopupVisible()) {
+            authorsPending = true;
+            return;
+        }
+        rebuildAuthorModel();
+    }
+
+    private void rebuildAuthorModel() {
+        authorsPending = false;
+        Object selected = authorComboBox.getSelectedItem();
+        String[] authors = new String[authorCounts.size() + 1];
+        authors[0] = ALL;
+        int i = 1;
+        for (String author : authorCounts.keySet()) {
+            authors[i++] = author;
+        }
+
+        updatingAuthors = true;
+        try {
+            DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>(authors);
+            if (selected != null && !ALL.equals(selected) && model.getIndexOf(selected) < 0) {
+                model.insertElementAt((String) selected, 1);
+            }
+            model.setSelectedItem(selected != null ? selected : ALL);
+            authorComboBox.setModel(model);
+        } finally {
+            updatingAuthors = false;
+        }
+    }
+
     private JScrollPane createPostsListPanel() {
-        listModel = new DefaultListModel<>();
-        postsList = new JList<>(listModel);
+        listModel = new PostListModel();
+        postsList = new PostsJList(listModel);
         postsList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         postsList.setCellRenderer(new PostListRenderer());
-        postsList.addListSelectionListener(e -> showPostDetails());
+        postsList.setPrototypeCellValue(PROTOTYPE_POST);
+        postsList.addListSelectionListener(e -> {
+            if (restoringSelection)
+                return;
+            selectedPosts = postsList.getSelectedValuesList();
+            showPostDetails();
+        });
+
+        // El modelo cambia de contenido de golpe (p. ej. cada tanda de posts de un crawl): los índices
+        // seleccionados ya no apuntan a los mismos posts, así que se vuelven a buscar.
+        listModel.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                restoreSelection();
+            }
+        });
 
         JScrollPane scrollPane = new JScrollPane(postsList);
         scrollPane.setBorder(BorderFactory.createTitledBorder("Posts List"));
@@ -138,10 +321,14 @@ public class DataPanel extends JPanel {
 
         postDetailsArea.addHyperlinkListener(e -> {
             if (e.getEventType() == HyperlinkEvent.EventType.ACTIVATED) {
+                if (SHOW_MORE_LINK.equals(e.getDescription())) {
+                    showFullPostDetails();
+                    return;
+                }
                 try {
                     Desktop.getDesktop().browse(e.getURL().toURI());
                 } catch (Exception ex) {
-                    ex.printStackTrace();
+                    ConsoleLogger.error("Could not open link: " + e.getURL(), ex);
                 }
             }
         });
@@ -156,6 +343,7 @@ public class DataPanel extends JPanel {
             return;
         try {
             List<Post> posts = JsonUtils.loadPosts();
+            detailsCache.clear();
             postManager.updatePosts(posts);
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Error loading posts: " + ex.getMessage(), "Load Error",
@@ -174,22 +362,127 @@ public class DataPanel extends JPanel {
                 "Delete " + indices.length + " selected posts?", "Confirm Delete", JOptionPane.YES_NO_OPTION);
 
         if (result == JOptionPane.YES_OPTION) {
-            try {
-                postManager.deleteSelectedPosts(postsList);
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(this, "Error deleting posts: " + ex.getMessage(), "Delete Error",
-                        JOptionPane.ERROR_MESSAGE);
+            postManager.deleteSelectedPosts(postsList);
+            detailsCache.clear();
+        }
+    }
+
+    // Vuelve a seleccionar los posts que estaban seleccionados en su nueva posición; los que ya no
+    // están en la lista se deseleccionan. Solo se repintan los detalles si cambia el post mostrado.
+    private void restoreSelection() {
+        List<Post> previous = selectedPosts;
+        int[] indices = new int[previous.size()];
+        int found = 0;
+        if (!previous.isEmpty()) {
+            Set<Post> wanted = new HashSet<>(previous);
+            for (int i = 0; i < listModel.getSize() && found < indices.length; i++) {
+                if (wanted.contains(listModel.getElementAt(i))) {
+                    indices[found++] = i;
+                }
+            }
+        }
+
+        restoringSelection = true;
+        try {
+            postsList.clearSelection();
+            if (found > 0) {
+                postsList.setSelectedIndices(Arrays.copyOf(indices, found));
             }
+        } finally {
+            restoringSelection = false;
+        }
+
+        selectedPosts = postsList.getSelectedValuesList();
+        Post shown = previous.isEmpty() ? null : previous.get(0);
+        if (postsList.getSelectedValue() != shown) {
+            showPostDetails();
         }
     }
 
     private void showPostDetails() {
         Post selected = postsList.getSelectedValue();
+        long generation = ++detailsGeneration;
         if (selected == null) {
-            postDetailsArea.setText("");
+            // Documento nuevo: setText("") vaciaría el que se está mostrando, que puede estar en la caché.
+            postDetailsArea.setDocument(postDetailsArea.getEditorKit().createDefaultDocument());
+            return;
+        }
+
+        boolean full = selected.getId() != null && selected.getId().equals(expandedPostId);
+        String cacheKey = selected.getId() != null ? selected.getId() + (full ? "#full" : "") : null;
+        CachedDetails cached = cacheKey != null ? detailsCache.get(cacheKey) : null;
+        if (cached != null && cached.post == selected) {
+            displayDetails(cached.document);
             return;
         }
 
+        // Se maqueta en segundo plano; si la selección cambia antes de terminar, el resultado se descarta.
+        detailsExecutor.execute(() -> {
+            if (generation != detailsGeneration) {
+                return;
+            }
+            HTMLDocument document = buildDetailsDocument(selected, full);
+            SwingUtilities.invokeLater(() -> {
+                if (document == null || generation != detailsGeneration) {
+                    return;
+                }
+                if (cacheKey != null) {
+                    detailsCache.put(cacheKey, new CachedDetails(selected, document));
+                }
+                displayDetails(document);
+            });
+        });
+    }
+
+    // El estado de los enlaces va dentro del HTML cacheado: se descarta y, si está a la vista, se repinta.
+    private void linkStatusChanged(Post post) {
+        if (post.getId() != null) {
+            detailsCache.remove(post.getId());
+            detailsCache.remove(post.getId() + "#full");
+        }
+        if (postsList.getSelectedValue() == post) {
+            showPostDetails();
+        }
+    }
+
+    private void showFullPostDetails() {
+        Post selected = postsList.getSelectedValue();
+        if (selected != null) {
+            expandedPostId = selected.getId();
+            showPostDetails();
+        }
+    }
+
+    private static final class CachedDetails {
+        final Post post;
+        final HTMLDocument document;
+
+        CachedDetails(Post post, HTMLDocument document) {
+            this.post = post;
+            this.document = document;
+        }
+    }
+
+    private void displayDetails(HTMLDocument document) {
+        postDetailsArea.setDocument(document);
+        postDetailsArea.setCaretPosition(0);
+    }
+
+    private HTMLDocument buildDetailsDocument(Post selected, boolean full) {
+        HTMLEditorKit kit = new HTMLEditorKit();
+        HTMLDocument document = (HTMLDocument) kit.createDefaultDocument();
+        try {
+            kit.read(new StringReader(buildDetailsHtml(selected, full)), document, 0);
+            return document;
+        } catch (Exception e) {
+            ConsoleLogger.error("Error rendering post details: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private String buildDetailsHtml(Post selected, boolean full) {
+        boolean truncated = false;
+
         StringBuilder details = new StringBuilder();
         details.append("<html><body style='font-family:sans-serif; padding:10px;'>");
         if (selected.getAlbumTitles() != null && !selected.getAlbumTitles().isEmpty()) {
@@ -204,32 +497,53 @@ public class DataPanel extends JPanel {
         details.append("<tr><td><b>ID:</b></td><td>").append(selected.getId()).append("</td></tr>");
         details.append("<tr><td><b>Author:</b></td><td>").append(selected.getAuthor()).append("</td></tr>");
         details.append("<tr><td><b>HOSTER:</b></td><td>").append(selected.getHoster()).append("</td></tr>");
+        details.append("<tr><td><b>Links:</b></td><td>").append(linkStatus(selected)).append("</td></tr>");
         details.append("</table><hr>");
 
+        String text = selected.getText();
+        if (!full && text != null && text.length() > DETAILS_TEXT_LIMIT) {
+            text = text.substring(0, DETAILS_TEXT_LIMIT) + "...";
+            truncated = true;
+        }
         details.append("<b>Text:</b><br>")
                 .append("<div style='border:1px solid #ccc; padding:5px; margin-bottom:10px;'>")
-                .append(toSafeHtml(selected.getText()))
+                .append(toSafeHtml(text))
                 .append("</div><hr>");
 
-        if (selected.getDiscogs() != null && !selected.getDiscogs().isEmpty()) {
-            details.append("<b>Discogs Links:</b><br>");
-            for (String link : selected.getDiscogs()) {
-                details.append("  - <a href='").append(link).append("'>").append(link).append("</a><br>");
-            }
-            details.append("<hr>");
-        }
+        truncated |= appendLinks(details, "Discogs Links", selected.getDiscogs(), full);
+        truncated |= appendLinks(details, "Download Links", selected.getDownloadLinks(), full);
 
-        if (selected.getDownloadLinks() != null && !selected.getDownloadLinks().isEmpty()) {
-            details.append("<b>Download Links:</b><br>");
-            for (String link : selected.getDownloadLinks()) {
-                details.append("  - <a href='").append(link).append("'>").append(link).append("</a><br>");
-            }
-            details.append("<hr>");
+        if (truncated) {
+            details.append("<a href='").append(SHOW_MORE_LINK).append("'>Show more</a>");
         }
 
         details.append("</body></html>");
-        postDetailsArea.setText(details.toString());
-        postDetailsArea.setCaretPosition(0);
+        return details.toString();
+    }
+
+    // Añade una sección de enlaces; devuelve true si se ha recortado.
+    private boolean appendLinks(StringBuilder details, String title, List<String> links, boolean full) {
+        if (links == null || links.isEmpty()) {
+            return false;
+        }
+        int shown = full ? links.size() : Math.min(links.size(), DETAILS_LINKS_LIMIT);
+        details.append("<b>").append(title).append(":</b><br>");
+        for (String link : links.subList(0, shown)) {
+            details.append("  - <a href='").append(link).append("'>").append(link).append("</a><br>");
+        }
+        if (shown < links.size()) {
+            details.append("  ... ").append(links.size() - shown).append(" more<br>");
+        }
+        details.append("<hr>");
+        return shown < links.size();
+    }
+
+    private static String linkStatus(Post post) {
+        if (post.getLastChecked() == 0) {
+            return post.isLinkAlive() ? "alive" : "not checked";
+        }
+        String checked = LINK_CHECK_FORMAT.format(Instant.ofEpochMilli(post.getLastChecked()));
+        return (post.isLinkAlive() ? "alive" : "dead") + " (checked " + checked + ")";
     }
 
     private String toSafeHtml(String text) {
@@ -239,10 +553,85 @@ public class DataPanel extends JPanel {
     }
 
     public static String cleanMessage(String rawText) {
-        return rawText.replaceAll("(?s)(Cita de:.*?\\d{2}:\\d{2}:\\d{2} (am|pm)\\s*)+", "").trim();
+        return Post.cleanMessage(rawText);
+    }
+
+    // JList que mide cuánto tarda en pintarse: tras cada filtrado y de media durante el scroll.
+    private class PostsJList extends JList<Post> {
+        private static final long serialVersionUID = 1L;
+        private static final int PAINT_STATS_FRAMES = 200;
+
+        private int paintFrames;
+        private long paintTotalNanos;
+        private long paintMaxNanos;
+
+        PostsJList(PostListModel model) {
+            super(model);
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            long start = System.nanoTime();
+            super.paintComponent(g);
+            long end = System.nanoTime();
+
+            CrawlMetrics.global().record(CrawlMetrics.UI_LIST_PAINT, end - start, true);
+            long swapNanos = listModel.consumeSwapNanos();
+            if (swapNanos != 0) {
+                CrawlMetrics.global().record(CrawlMetrics.UI_LIST_REPAINT, end - swapNanos, true);
+                int size = listModel.getSize();
+                ConsoleLogger.debug(() -> String.format("Posts list repainted %d posts in %.1f ms",
+                        size, (end - swapNanos) / 1_000_000.0));
+            }
+
+            paintFrames++;
+            paintTotalNanos += end - start;
+            paintMaxNanos = Math.max(paintMaxNanos, end - start);
+            if (paintFrames == PAINT_STATS_FRAMES) {
+                double avgMs = paintTotalNanos / (paintFrames * 1_000_000.0);
+                double maxMs = paintMaxNanos / 1_000_000.0;
+                int frames = paintFrames;
+                ConsoleLogger.debug(() -> String.format("Posts list paint: avg %.2f ms, max %.2f ms over %d frames",
+                        avgMs, maxMs, frames));
+                paintFrames = 0;
+                paintTotalNanos = 0;
+                paintMaxNanos = 0;
+            }
+        }
+    }
+
+    // Muestra cada valor de faceta con su recuento actual, p. ej. "mega.nz (1045)".
+    private static class FacetCountRenderer extends DefaultListCellRenderer {
+        private static final long serialVersionUID = 1L;
+
+        private final Supplier<Map<String, Integer>> counts;
+        private final IntSupplier total;
+
+        FacetCountRenderer(Supplier<Map<String, Integer>> counts, IntSupplier total) {
+            this.counts = counts;
+            this.total = total;
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                boolean isSelected, boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            if (value != null) {
+                // "Todos" cuenta también los posts sin hoster o sin autor, que no salen en counts.
+                int count = ALL.equals(value) ? total.getAsInt() : counts.get().getOrDefault(value.toString(), 0);
+                setText(value + " (" + count + ")");
+            }
+            return this;
+        }
     }
 
-    private class PostListRenderer extends DefaultListCellRenderer {
+    private static class PostListRenderer extends DefaultListCellRenderer {
+        private static final long serialVersionUID = 1L;
+        private static final EmptyBorder CELL_BORDER = new EmptyBorder(5, 5, 5, 5);
+
+        private Font baseFont;
+        private Font boldFont;
+
         @Override
         public Component getListCellRendererComponent(JList<?> list, Object value, int index,
                 boolean isSelected, boolean cellHasFocus) {
@@ -250,23 +639,20 @@ public class DataPanel extends JPanel {
 
             if (value instanceof Post) {
                 Post post = (Post) value;
-                String displayText;
-
-                if (post.getAlbumTitles() != null && !post.getAlbumTitles().isEmpty()) {
-                    displayText = "<html><b> " + post.getAlbumTitles().get(0) + " </b></html>";
-                } else if (post.getText() != null && !post.getText().isEmpty()) {
-                    String cleanText = cleanMessage(post.getText());
-                    if (cleanText.length() > 50)
-                        cleanText = cleanText.substring(0, 50) + "...";
-                    displayText = cleanText;
-                } else {
-                    displayText = "Post ID: " + post.getId();
-                }
-                setText(displayText);
+                setText(post.getDisplayLabel());
+                setFont(post.hasAlbumTitle() ? boldFontFor(list.getFont()) : list.getFont());
             }
 
-            setBorder(new EmptyBorder(5, 5, 5, 5));
+            setBorder(CELL_BORDER);
             return this;
         }
+
+        private Font boldFontFor(Font font) {
+            if (font != baseFont) {
+                baseFont = font;
+                boldFont = font.deriveFont(Font.BOLD);
+            }
+            return boldFont;
+        }
     }
 }
@@ -0,0 +1,194 @@
+package makinamania.ui;
+
+import makinamania.CrawlJob;
+import makinamania.CrawlScheduler;
+import makinamania.MakinamaniaScraper;
+import makinamania.Post;
+import makinamania.PostManager;
+
+import javax.swing.*;
+import javax.swing.Timer;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Pestaña "Jobs": trabajos de la cola de scraping con su progreso, pausa/reanudación,
+// prioridad y cancelación, más el presupuesto global de concurrencia.
+public class JobsPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int REFRESH_MS = 250;
+
+    private final CrawlScheduler scheduler;
+    private final PostManager postManager;
+    private final JobTableModel tableModel = new JobTableModel();
+    private final Queue<Post> pendingPosts = new ConcurrentLinkedQueue<>();
+    private JTable jobTable;
+
+    public JobsPanel(CrawlScheduler scheduler, PostManager postManager) {
+        this.scheduler = scheduler;
+        this.postManager = postManager;
+        initializeUI();
+
+        // Los posts llegan desde los hilos del planificador y se pasan a la pestaña Data por lotes.
+        scheduler.addListener(new CrawlScheduler.Listener() {
+            @Override
+            public void postsScraped(CrawlJob job, List<Post> posts) {
+                pendingPosts.addAll(posts);
+            }
+        });
+
+        Timer refreshTimer = new Timer(REFRESH_MS, e -> refresh());
+        refreshTimer.start();
+    }
+
+    private void initializeUI() {
+        setLayout(new BorderLayout(5, 5));
+        setBorder(new EmptyBorder(10, 10, 10, 10));
+
+        jobTable = new JTable(tableModel);
+        jobTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        jobTable.getColumnModel().getColumn(0).setMaxWidth(50);
+        jobTable.getColumnModel().getColumn(1).setPreferredWidth(380);
+
+        JScrollPane scrollPane = new JScrollPane(jobTable);
+        scrollPane.setBorder(BorderFactory.createTitledBorder("Crawl Jobs"));
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+
+        JButton pauseButton = new JButton("Pause");
+        pauseButton.addActionListener(e -> selectedJobs().forEach(scheduler::pause));
+
+        JButton resumeButton = new JButton("Resume");
+        resumeButton.addActionListener(e -> selectedJobs().forEach(scheduler::resume));
+
+        JButton priorityUpButton = new JButton("Priority +");
+        priorityUpButton.addActionListener(
+                e -> selectedJobs().forEach(job -> scheduler.setPriority(job, job.getPriority() + 1)));
+
+        JButton priorityDownButton = new JButton("Priority -");
+        priorityDownButton.addActionListener(
+                e -> selectedJobs().forEach(job -> scheduler.setPriority(job, job.getPriority() - 1)));
+
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> selectedJobs().forEach(scheduler::cancel));
+
+        JButton clearButton = new JButton("Clear finished");
+        clearButton.addActionListener(e -> {
+            scheduler.clearFinished();
+            refresh();
+        });
+
+        JSpinner concurrencySpinner = new JSpinner(
+                new SpinnerNumberModel(scheduler.getConcurrency(), 1, CrawlScheduler.MAX_CONCURRENCY, 1));
+        concurrencySpinner.setToolTipText("Maximum pages fetched at the same time across all jobs");
+        concurrencySpinner.addChangeListener(e -> scheduler.setConcurrency((Integer) concurrencySpinner.getValue()));
+
+        buttonPanel.add(pauseButton);
+        buttonPanel.add(resumeButton);
+        buttonPanel.add(priorityUpButton);
+        buttonPanel.add(priorityDownButton);
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(clearButton);
+        buttonPanel.add(new JLabel("   Concurrency:"));
+        buttonPanel.add(concurrencySpinner);
+
+        add(scrollPane, BorderLayout.CENTER);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    private List<CrawlJob> selectedJobs() {
+        List<CrawlJob> selected = new ArrayList<>();
+        for (int row : jobTable.getSelectedRows()) {
+            selected.add(tableModel.getJob(jobTable.convertRowIndexToModel(row)));
+        }
+        return selected;
+    }
+
+    private void refresh() {
+        if (!pendingPosts.isEmpty()) {
+            List<Post> batch = new ArrayList<>();
+            Post post;
+            while ((post = pendingPosts.poll()) != null) {
+                batch.add(post);
+            }
+            postManager.addNewPosts(batch);
+        }
+
+        List<CrawlJob> selected = selectedJobs();
+        tableModel.setJobs(scheduler.getJobs());
+        for (CrawlJob job : selected) {
+            int row = tableModel.indexOf(job);
+            if (row >= 0) {
+                jobTable.addRowSelectionInterval(row, row);
+            }
+        }
+    }
+
+    private static class JobTableModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+        private static final String[] COLUMNS = { "#", "URL", "Board pages", "Topic pages", "Priority", "State",
+                "Progress", "Pages", "Posts" };
+
+        private List<CrawlJob> jobs = new ArrayList<>();
+
+        void setJobs(List<CrawlJob> newJobs) {
+            jobs = newJobs;
+            fireTableDataChanged();
+        }
+
+        CrawlJob getJob(int row) {
+            return jobs.get(row);
+        }
+
+        int indexOf(CrawlJob job) {
+            return jobs.indexOf(job);
+        }
+
+        @Override
+        public int getRowCount() {
+            return jobs.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            CrawlJob job = jobs.get(row);
+            switch (column) {
+                case 0:
+                    return job.getId();
+                case 1:
+                    return job.getUrl();
+                case 2:
+                    return MakinamaniaScraper.isBoardUrl(job.getUrl()) ? job.getBoardPages() : "-";
+                case 3:
+                    return job.getTopicPages();
+                case 4:
+                    return job.getPriority();
+                case 5:
+                    return job.getError() != null ? job.getState() + ": " + job.getError() : job.getState();
+                case 6:
+                    return job.getProgress() + "%";
+                case 7:
+                    String pages = (job.getProcessedPages() + job.getSkippedPages()) + "/" + job.getTotalPages();
+                    return job.getFailedPages() > 0 ? pages + " (" + job.getFailedPages() + " failed)" : pages;
+                case 8:
+                    return job.getPosts().size();
+                default:
+                    return "";
+            }
+        }
+    }
+}
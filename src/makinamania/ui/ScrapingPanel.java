@@ -1,12 +1,20 @@
 package makinamania.ui;
 
 import makinamania.ConsoleLogger;
+import makinamania.CrawlFrontier;
+import makinamania.CrawlJob;
+import makinamania.CrawlScheduler;
+import makinamania.Crawler;
+import makinamania.CrawlRecording;
+import makinamania.CrawlReport;
 import makinamania.JsonUtils;
 import makinamania.Post;
 import makinamania.PostManager;
+import makinamania.TopicFilter;
 import makinamania.MakinamaniaScraper;
 
 import javax.swing.*;
+import javax.swing.Timer;
 import javax.swing.border.EmptyBorder;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
@@ -16,10 +24,11 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.*;
 import java.util.List;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class ScrapingPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int RETRY_CHECK_DELAY_MS = 300;
+
     private JTextField urlField;
     private JTextField boardPagesField;
     private JTextField pagesField;
@@ -28,17 +37,30 @@ public class ScrapingPanel extends JPanel {
     private JLabel urlLabel;
     private JLabel boardPagesLabel;
     private JLabel pagesLabel;
+    private JLabel filterLabel;
+    private JPanel filterPanel;
+    private JTextField includeField;
+    private JTextField excludeField;
+    private JTextField titleRegexField;
+    private JCheckBox skipRequestsCheckBox;
     private JButton startButton;
     private JButton stopButton;
-    private JTextPane consoleTextPane;
+    private JButton queueButton;
+    private JButton retryButton;
+    private JCheckBox recordJfrCheckBox;
+    private ConsolePane consolePane;
 
     private ScrapingWorker currentWorker;
+    private Timer retryCheckTimer;
+    private int retryCheckGeneration;
     private final PostManager postManager;
     private final JTabbedPane mainTabbedPane;
+    private final CrawlScheduler scheduler;
 
-    public ScrapingPanel(PostManager postManager, JTabbedPane mainTabbedPane) {
+    public ScrapingPanel(PostManager postManager, JTabbedPane mainTabbedPane, CrawlScheduler scheduler) {
         this.postManager = postManager;
         this.mainTabbedPane = mainTabbedPane;
+        this.scheduler = scheduler;
         initializeUI();
     }
 
@@ -63,6 +85,59 @@ public class ScrapingPanel extends JPanel {
 
         add(northWrapper, BorderLayout.NORTH);
         add(createConsolePanel(), BorderLayout.CENTER);
+
+        // Retry Failed se activa también con las páginas fallidas que dejó una sesión anterior.
+        retryCheckTimer = new Timer(RETRY_CHECK_DELAY_MS, e -> refreshRetryButton());
+        retryCheckTimer.setRepeats(false);
+        RetryCheckListener retryCheckListener = new RetryCheckListener();
+        for (JTextField field : List.of(urlField, boardPagesField, pagesField, includeField, excludeField,
+                titleRegexField)) {
+            field.getDocument().addDocumentListener(retryCheckListener);
+        }
+        skipRequestsCheckBox.addActionListener(e -> retryCheckTimer.restart());
+        refreshRetryButton();
+    }
+
+    // Mira fuera del EDT si la frontera de la URL y patrones actuales tiene páginas FAILED. Si entre
+    // tanto cambian los campos o empieza un scraping, el resultado se descarta.
+    private void refreshRetryButton() {
+        int generation = ++retryCheckGeneration;
+        if (currentWorker != null) {
+            return;
+        }
+        String url = urlField.getText().trim();
+        String topicPages = pagesField.getText().trim();
+        String boardPages = boardPagesField.getText().trim();
+        if (topicPages.isEmpty() || !(isTopicUrl(url) || isBoardUrl(url))) {
+            retryButton.setEnabled(false);
+            return;
+        }
+        TopicFilter filter;
+        try {
+            filter = topicFilter();
+        } catch (IllegalArgumentException e) {
+            retryButton.setEnabled(false);
+            return;
+        }
+
+        new SwingWorker<Boolean, Void>() {
+            @Override
+            protected Boolean doInBackground() {
+                return CrawlFrontier.hasFailedPages(url, boardPages, topicPages, filter);
+            }
+
+            @Override
+            protected void done() {
+                if (generation != retryCheckGeneration || currentWorker != null) {
+                    return;
+                }
+                try {
+                    retryButton.setEnabled(get());
+                } catch (Exception e) {
+                    retryButton.setEnabled(false);
+                }
+            }
+        }.execute();
     }
 
     private JPanel createInputPanel() {
@@ -115,9 +190,23 @@ public class ScrapingPanel extends JPanel {
         pagesField.getDocument().addDocumentListener(new PagesValidationListener());
         panel.add(pagesField, gbc);
 
+        // Fila de filtros de título (solo para boards): se aplican al leer el listado
+        gbc.gridx = 0;
+        gbc.gridy = 3;
+        gbc.weightx = 0;
+        filterLabel = new JLabel("Title filter:");
+        panel.add(filterLabel, gbc);
+
+        gbc.gridx = 1;
+        gbc.weightx = 1;
+        filterPanel = createFilterPanel();
+        panel.add(filterPanel, gbc);
+
         // Inicialmente el input de páginas de board está oculto
         boardPagesLabel.setVisible(false);
         boardPagesField.setVisible(false);
+        filterLabel.setVisible(false);
+        filterPanel.setVisible(false);
 
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
 
@@ -127,19 +216,44 @@ public class ScrapingPanel extends JPanel {
         stopButton = new JButton("Stop");
         stopButton.setEnabled(false);
         stopButton.addActionListener(e -> {
-            MakinamaniaScraper.stop();
+            // Parar aborta las peticiones en curso; el worker termina en cuanto el pipeline se vacía
+            // y done() guarda lo hecho hasta ahí.
             if (currentWorker != null) {
-                currentWorker.cancel(true);
+                currentWorker.crawler.cancel();
+            } else {
+                MakinamaniaScraper.stop();
             }
             statusLabel.setText("Stopping...");
             stopButton.setEnabled(false);
         });
 
+        retryButton = new JButton("Retry Failed");
+        retryButton.setToolTipText("Scrape again only the pages that failed in the last crawl of this URL");
+        retryButton.setEnabled(false);
+        retryButton.addActionListener(e -> startWorker(true));
+
+        queueButton = new JButton("Add to Queue");
+        queueButton.setToolTipText("Run this board/topic as a background job; see the Jobs tab");
+        queueButton.addActionListener(e -> {
+            if (!validateInputs()) {
+                return;
+            }
+            CrawlJob job = scheduler.submit(new CrawlJob(urlField.getText().trim(), boardPagesField.getText().trim(),
+                    pagesField.getText().trim(), topicFilter(), CrawlJob.DEFAULT_PRIORITY));
+            statusLabel.setText("Queued job #" + job.getId() + " (" + scheduler.getJobs().size() + " jobs in the queue)");
+        });
+
+        recordJfrCheckBox = new JCheckBox("Record JFR");
+        recordJfrCheckBox.setToolTipText("Record this crawl with Java Flight Recorder and save a .jfr file for JMC");
+
         buttonPanel.add(startButton);
         buttonPanel.add(stopButton);
+        buttonPanel.add(retryButton);
+        buttonPanel.add(queueButton);
+        buttonPanel.add(recordJfrCheckBox);
 
         gbc.gridx = 0;
-        gbc.gridy = 3;
+        gbc.gridy = 4;
         gbc.gridwidth = 2;
         gbc.anchor = GridBagConstraints.CENTER;
         panel.add(buttonPanel, gbc);
@@ -147,6 +261,38 @@ public class ScrapingPanel extends JPanel {
         return panel;
     }
 
+    private JPanel createFilterPanel() {
+        JPanel panel = new JPanel(new GridLayout(1, 4, 5, 0));
+
+        includeField = new JTextField();
+        includeField.setToolTipText("Only topics whose title contains one of these words (comma-separated)");
+        excludeField = new JTextField();
+        excludeField.setToolTipText("Skip topics whose title contains any of these words (comma-separated)");
+        titleRegexField = new JTextField();
+        titleRegexField.setToolTipText("Only topics whose title matches this regular expression");
+        skipRequestsCheckBox = new JCheckBox("No request threads");
+        skipRequestsCheckBox.setToolTipText("Skip threads titled Peticion, Busco, [REQ]...");
+
+        panel.add(labeled("Include", includeField));
+        panel.add(labeled("Exclude", excludeField));
+        panel.add(labeled("Regex", titleRegexField));
+        panel.add(skipRequestsCheckBox);
+        return panel;
+    }
+
+    private static JPanel labeled(String label, JComponent field) {
+        JPanel panel = new JPanel(new BorderLayout(3, 0));
+        panel.add(new JLabel(label), BorderLayout.WEST);
+        panel.add(field, BorderLayout.CENTER);
+        return panel;
+    }
+
+    // Filtro de títulos de los campos; lanza IllegalArgumentException si la regex no es válida.
+    private TopicFilter topicFilter() {
+        return TopicFilter.of(includeField.getText(), excludeField.getText(), titleRegexField.getText(),
+                skipRequestsCheckBox.isSelected());
+    }
+
     private JPanel createLogoPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(new EmptyBorder(10, 10, 10, 10));
@@ -164,7 +310,7 @@ public class ScrapingPanel extends JPanel {
                 try {
                     Desktop.getDesktop().browse(new URI("https://www.makinamania.net"));
                 } catch (Exception ex) {
-                    ex.printStackTrace();
+                    ConsoleLogger.error("Could not open makinamania.net", ex);
                 }
             }
         });
@@ -192,49 +338,17 @@ public class ScrapingPanel extends JPanel {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(BorderFactory.createTitledBorder("Debug Console"));
 
-        consoleTextPane = new JTextPane();
-        consoleTextPane.setEditable(false);
-        consoleTextPane.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        consolePane = new ConsolePane();
 
-        JScrollPane scrollPane = new JScrollPane(consoleTextPane);
+        JScrollPane scrollPane = new JScrollPane(consolePane);
         scrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS);
 
-        ConsoleLogger.addLogListener(message -> {
-            SwingUtilities.invokeLater(() -> appendColoredMessage(message));
-        });
+        ConsoleLogger.addLogListener(consolePane::append);
 
         panel.add(scrollPane, BorderLayout.CENTER);
         return panel;
     }
 
-    private void appendColoredMessage(String message) {
-        javax.swing.text.StyledDocument doc = consoleTextPane.getStyledDocument();
-        javax.swing.text.SimpleAttributeSet style = new javax.swing.text.SimpleAttributeSet();
-
-        Color color = UIManager.getColor("TextPane.foreground");
-        if (color == null)
-            color = Color.BLACK;
-
-        if (message.contains("[SUCCESS]")) {
-            color = new Color(0, 150, 0);
-        } else if (message.contains("[ERROR]")) {
-            color = Color.RED;
-        } else if (message.contains("[WARN]")) {
-            color = new Color(150, 100, 0);
-        } else if (message.contains("[START]")) {
-            color = Color.BLUE;
-        }
-
-        javax.swing.text.StyleConstants.setForeground(style, color);
-
-        try {
-            doc.insertString(doc.getLength(), message + "\n", style);
-            consoleTextPane.setCaretPosition(doc.getLength());
-        } catch (javax.swing.text.BadLocationException e) {
-            e.printStackTrace();
-        }
-    }
-
     private class UrlValidationListener implements DocumentListener {
         @Override
         public void insertUpdate(DocumentEvent e) {
@@ -258,6 +372,8 @@ public class ScrapingPanel extends JPanel {
                 urlLabel.setText("Topic:");
                 boardPagesLabel.setVisible(false);
                 boardPagesField.setVisible(false);
+                filterLabel.setVisible(false);
+                filterPanel.setVisible(false);
                 return;
             }
             boolean isTopic = isTopicUrl(url);
@@ -268,22 +384,46 @@ public class ScrapingPanel extends JPanel {
                 urlLabel.setText("Topic:");
                 boardPagesLabel.setVisible(false);
                 boardPagesField.setVisible(false);
+                filterLabel.setVisible(false);
+                filterPanel.setVisible(false);
             } else if (isBoard) {
                 urlField.setBackground(new Color(200, 255, 200));
                 urlLabel.setText("Board:");
                 boardPagesLabel.setVisible(true);
                 boardPagesField.setVisible(true);
+                filterLabel.setVisible(true);
+                filterPanel.setVisible(true);
             } else {
                 urlField.setBackground(new Color(255, 200, 200));
                 urlLabel.setText("Board / Topic:");
                 boardPagesLabel.setVisible(false);
                 boardPagesField.setVisible(false);
+                filterLabel.setVisible(false);
+                filterPanel.setVisible(false);
             }
             urlField.getParent().revalidate();
             urlField.getParent().repaint();
         }
     }
 
+    // Vuelve a mirar las páginas fallidas un poco después de que el usuario deje de escribir.
+    private class RetryCheckListener implements DocumentListener {
+        @Override
+        public void insertUpdate(DocumentEvent e) {
+            retryCheckTimer.restart();
+        }
+
+        @Override
+        public void removeUpdate(DocumentEvent e) {
+            retryCheckTimer.restart();
+        }
+
+        @Override
+        public void changedUpdate(DocumentEvent e) {
+            retryCheckTimer.restart();
+        }
+    }
+
     private class PagesValidationListener implements DocumentListener {
         @Override
         public void insertUpdate(DocumentEvent e) {
@@ -379,161 +519,199 @@ public class ScrapingPanel extends JPanel {
     private class StartScrapingListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            if (!validateInputs())
-                return;
+            startWorker(false);
+        }
+    }
 
-            MakinamaniaScraper.reset();
-            startButton.setEnabled(false);
-            stopButton.setEnabled(true);
+    // Lanza un scraping completo o, con retryFailedOnly, solo de las páginas que fallaron la última vez.
+    private void startWorker(boolean retryFailedOnly) {
+        if (!validateInputs())
+            return;
 
-            currentWorker = new ScrapingWorker();
-            currentWorker.execute();
+        MakinamaniaScraper.reset();
+        startButton.setEnabled(false);
+        retryButton.setEnabled(false);
+        stopButton.setEnabled(true);
+
+        currentWorker = new ScrapingWorker(retryFailedOnly);
+        if (recordJfrCheckBox.isSelected()) {
+            try {
+                currentWorker.recording = CrawlRecording.start();
+            } catch (Exception ex) {
+                ConsoleLogger.error("Could not start JFR recording: " + ex.getMessage());
+            }
         }
+        currentWorker.execute();
+    }
 
-        private boolean validateInputs() {
-            String url = urlField.getText().trim();
-            String topicPages = pagesField.getText().trim();
-            String boardPages = boardPagesField.getText().trim();
+    // Comprueba URL y patrones de páginas antes de lanzar un scraping o encolarlo.
+    private boolean validateInputs() {
+        String url = urlField.getText().trim();
+        String topicPages = pagesField.getText().trim();
+        String boardPages = boardPagesField.getText().trim();
+
+        if (url.isEmpty() || topicPages.isEmpty()) {
+            JOptionPane.showMessageDialog(ScrapingPanel.this,
+                    "Please fill in URL and topic pages fields", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
 
-            if (url.isEmpty() || topicPages.isEmpty()) {
+        if (urlField.getBackground().equals(new Color(255, 200, 200))) {
+            JOptionPane.showMessageDialog(ScrapingPanel.this,
+                    "Please enter a valid MakinaMania topic or board URL", "URL Error", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+
+        if (pagesField.getBackground().equals(new Color(255, 200, 200))) {
+            JOptionPane.showMessageDialog(ScrapingPanel.this,
+                    "Please enter valid page numbers (e.g., 1,2,3,4-7,8-*)", "Pages Error",
+                    JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+
+        if (isBoardUrl(url)) {
+            if (boardPages.isEmpty()) {
                 JOptionPane.showMessageDialog(ScrapingPanel.this,
-                        "Please fill in URL and topic pages fields", "Input Error", JOptionPane.ERROR_MESSAGE);
+                        "Please enter board pages when using a board URL", "Board Pages Error",
+                        JOptionPane.ERROR_MESSAGE);
                 return false;
             }
-
-            if (urlField.getBackground().equals(new Color(255, 200, 200))) {
+            if (boardPagesField.getBackground().equals(new Color(255, 200, 200))) {
                 JOptionPane.showMessageDialog(ScrapingPanel.this,
-                        "Please enter a valid MakinaMania topic or board URL", "URL Error", JOptionPane.ERROR_MESSAGE);
+                        "Please enter valid board page numbers (e.g., 1,2,3,4-7,8-*)", "Board Pages Error",
+                        JOptionPane.ERROR_MESSAGE);
                 return false;
             }
-
-            if (pagesField.getBackground().equals(new Color(255, 200, 200))) {
+            try {
+                topicFilter();
+            } catch (IllegalArgumentException e) {
                 JOptionPane.showMessageDialog(ScrapingPanel.this,
-                        "Please enter valid page numbers (e.g., 1,2,3,4-7,8-*)", "Pages Error",
+                        "Please enter a valid title regex: " + e.getMessage(), "Title Filter Error",
                         JOptionPane.ERROR_MESSAGE);
                 return false;
             }
+        }
+        return true;
+    }
 
-            if (isBoardUrl(url)) {
-                if (boardPages.isEmpty()) {
-                    JOptionPane.showMessageDialog(ScrapingPanel.this,
-                            "Please enter board pages when using a board URL", "Board Pages Error",
-                            JOptionPane.ERROR_MESSAGE);
-                    return false;
-                }
-                if (boardPagesField.getBackground().equals(new Color(255, 200, 200))) {
-                    JOptionPane.showMessageDialog(ScrapingPanel.this,
-                            "Please enter valid board page numbers (e.g., 1,2,3,4-7,8-*)", "Board Pages Error",
-                            JOptionPane.ERROR_MESSAGE);
-                    return false;
-                }
-            }
-            return true;
+    // Avance publicado por el worker: porcentaje y posts encontrados desde la última publicación.
+    private static class ScrapingUpdate {
+        final int progress;
+        final List<Post> posts;
+
+        ScrapingUpdate(int progress, List<Post> posts) {
+            this.progress = progress;
+            this.posts = posts;
         }
     }
 
-    private class ScrapingWorker extends SwingWorker<Void, Integer> {
-        private List<Post> posts;
-        private int totalLinks;
+    private class ScrapingWorker extends SwingWorker<Void, ScrapingUpdate> implements Crawler.Listener {
+        private static final int DATA_REFRESH_MS = 250;
+
+        private final Crawler crawler = new Crawler(this);
+        private final boolean retryFailedOnly;
+        private final TopicFilter filter = topicFilter();
+        private final List<Post> posts = crawler.getPosts();
+        private final List<Post> pendingPosts = new ArrayList<>();
+        private long lastDataRefresh;
+        private Timer dataRefreshTimer;
         private int totalUrls;
-        private final AtomicInteger completed = new AtomicInteger(0);
-        private Set<String> scannedUrls;
+        private CrawlReport report;
+        private CrawlRecording recording;
+
+        ScrapingWorker(boolean retryFailedOnly) {
+            this.retryFailedOnly = retryFailedOnly;
+        }
 
         @Override
         protected Void doInBackground() throws Exception {
             String url = urlField.getText().trim();
             String topicPages = pagesField.getText().trim();
             String boardPages = boardPagesField.getText().trim();
+            report = new CrawlReport(crawler.getSession().getMetrics(), url);
+            crawler.setTopicFilter(filter);
 
-            if (isBoardUrl(url)) {
-                analyzeBoard(url, boardPages, topicPages);
-            } else {
-                analyzeTopic(url, topicPages);
+            int newUrls = retryFailedOnly ? crawler.retryFailed(url, boardPages, topicPages)
+                    : crawler.crawl(url, boardPages, topicPages);
+            totalUrls = crawler.getTotalUrls();
+
+            if (newUrls == 0 && retryFailedOnly) {
+                throw new IOException("There are no failed pages to retry for this URL.");
+            }
+            if (newUrls == 0 && !crawler.isCancelled()) {
+                throw new IOException("All URLs have already been scanned. No new URLs to process.");
             }
             return null;
         }
 
-        private void analyzeBoard(String boardUrl, String boardPages, String topicPages) throws Exception {
-            List<String> links = MakinamaniaScraper.getTopicPageUrls(boardUrl, boardPages, topicPages);
-            processLinks(links);
-        }
-
-        private void analyzeTopic(String topicUrl, String topicPages) throws Exception {
-            List<String> links = MakinamaniaScraper.genUrls(topicUrl, topicPages);
-            processLinks(links);
+        @Override
+        public void pageScraped(String url, List<Post> scrapedPosts, int processed, int totalUrls) {
+            publish(new ScrapingUpdate((processed * 100) / totalUrls, scrapedPosts));
         }
 
-        private void processLinks(List<String> links) throws Exception {
-            totalUrls = links.size();
-
-            scannedUrls = JsonUtils.loadScannedUrls();
-            List<String> linksToScrape = JsonUtils.filterNewUrls(links, scannedUrls);
-            int skippedUrls = totalUrls - linksToScrape.size();
-            totalLinks = linksToScrape.size();
-
-            if (linksToScrape.isEmpty()) {
-                ConsoleLogger.info("All URLs have already been scanned. No new URLs to process.");
-                throw new IOException("All URLs have already been scanned. No new URLs to process.");
+        @Override
+        protected void process(List<ScrapingUpdate> updates) {
+            if (updates.isEmpty()) {
+                return;
+            }
+            for (ScrapingUpdate update : updates) {
+                pendingPosts.addAll(update.posts);
             }
+            scheduleDataRefresh();
 
-            ConsoleLogger.start("Starting scraping of " + totalLinks + " new URLs (skipped " + skippedUrls + ")");
-            posts = Collections.synchronizedList(new ArrayList<>());
-            ExecutorService executor = Executors.newFixedThreadPool(3);
+            int progress = updates.get(updates.size() - 1).progress;
+            progressBar.setValue(progress);
+            int currentProcessed = (progress * totalUrls) / 100;
+            statusLabel.setText(
+                    "Progress: " + progress + "% - Processed " + currentProcessed + "/" + totalUrls + " URLs");
+        }
 
-            try {
-                List<Callable<Void>> tasks = new ArrayList<>();
-                for (String link : linksToScrape) {
-                    tasks.add(() -> {
-                        if (isCancelled()) {
-                            return null;
-                        }
-                        analyzePostPage(link, skippedUrls);
-                        return null;
-                    });
-                }
-                executor.invokeAll(tasks);
-            } finally {
-                executor.shutdown();
+        // Pasa los posts nuevos a la pestaña Data como mucho cada DATA_REFRESH_MS.
+        private void scheduleDataRefresh() {
+            if (pendingPosts.isEmpty() || (dataRefreshTimer != null && dataRefreshTimer.isRunning())) {
+                return;
+            }
+            long wait = DATA_REFRESH_MS - (System.currentTimeMillis() - lastDataRefresh);
+            if (wait <= 0) {
+                flushPendingPosts();
+                return;
             }
+            dataRefreshTimer = new Timer((int) wait, e -> flushPendingPosts());
+            dataRefreshTimer.setRepeats(false);
+            dataRefreshTimer.start();
         }
 
-        private void analyzePostPage(String link, int skippedUrls) {
-            try {
-                ConsoleLogger.scraping(String.valueOf(completed.get() + 1), String.valueOf(totalUrls), link);
-                List<Post> scrapedPosts = MakinamaniaScraper.scrapePosts(link);
-                if (scrapedPosts != null && !scrapedPosts.isEmpty()) {
-                    ConsoleLogger.success("Found " + scrapedPosts.size() + " posts in " + link);
-                    posts.addAll(scrapedPosts);
-                }
-                JsonUtils.addUrlAndSave(scannedUrls, link);
-                int currentCompleted = completed.incrementAndGet() + skippedUrls;
-                int progress = (currentCompleted * 100) / totalUrls;
-                publish(progress);
-            } catch (Exception ex) {
-                ConsoleLogger.error("Error scraping link: " + link + " -> " + ex.getMessage());
+        private void flushPendingPosts() {
+            lastDataRefresh = System.currentTimeMillis();
+            if (!pendingPosts.isEmpty()) {
+                postManager.addNewPosts(new ArrayList<>(pendingPosts));
+                pendingPosts.clear();
             }
         }
 
-        @Override
-        protected void process(List<Integer> progressValues) {
-            if (!progressValues.isEmpty()) {
-                int progress = progressValues.get(progressValues.size() - 1);
-                progressBar.setValue(progress);
-                int currentProcessed = (progress * totalUrls) / 100;
-                statusLabel.setText(
-                        "Progress: " + progress + "% - Processed " + currentProcessed + "/" + totalUrls + " URLs");
+        // Guarda scanned.json si el crawler llegó a cargarlo; siempre después de guardar los posts.
+        private void saveScannedUrls() {
+            Set<String> scannedUrls = crawler.getScannedUrls();
+            if (scannedUrls != null) {
+                JsonUtils.saveScannedUrls(scannedUrls);
             }
         }
 
         @Override
         protected void done() {
+            if (dataRefreshTimer != null) {
+                dataRefreshTimer.stop();
+            }
+            flushPendingPosts();
+            boolean stopped = isCancelled() || crawler.isCancelled();
+            String outcome = stopped ? "cancelled" : "completed";
             try {
                 if (!isCancelled())
                     get();
-                JsonUtils.saveScannedUrls(scannedUrls);
 
+                boolean postsSaved = true;
                 if (posts.isEmpty()) {
-                    if (!isCancelled()) {
+                    if (!stopped) {
                         JOptionPane.showMessageDialog(ScrapingPanel.this, "No posts found in the new URLs", "Warning",
                                 JOptionPane.WARNING_MESSAGE);
                     } else {
@@ -541,51 +719,97 @@ public class ScrapingPanel extends JPanel {
                     }
                 } else {
                     Set<Post> uniquePosts = new HashSet<>(posts);
+                    report.setPostsFound(posts.size());
+                    report.setDuplicatesFiltered(posts.size() - uniquePosts.size());
                     if (uniquePosts.size() < posts.size()) {
                         ConsoleLogger.warn("Filtered out " + (posts.size() - uniquePosts.size()) + " duplicate posts");
                     }
-                    JsonUtils.toJson(new ArrayList<>(uniquePosts));
+                    postsSaved = JsonUtils.toJson(new ArrayList<>(uniquePosts));
 
-                    if (isCancelled()) {
+                    if (!postsSaved) {
+                        statusLabel.setText("Could not save posts.json; these pages will be scraped again.");
+                    } else if (stopped) {
                         statusLabel.setText("Scraping stopped. Saved " + uniquePosts.size() + " posts.");
                     } else {
                         progressBar.setValue(100);
                         statusLabel.setText("Scraping completed. " + uniquePosts.size() + " unique posts saved.");
                     }
 
-                    postManager.updatePosts(new ArrayList<>(uniquePosts));
                     if (mainTabbedPane != null)
                         mainTabbedPane.setSelectedIndex(1);
                 }
+                // scanned.json después de los posts: una página solo consta como escaneada si sus
+                // posts ya están en disco. Con los dos guardados, la frontera las da por hechas.
+                if (postsSaved) {
+                    saveScannedUrls();
+                    crawler.checkpoint();
+                }
+
+                int failed = crawler.getFailedUrls().size();
+                int recovered = crawler.getRecoveredUrls();
+                if (failed > 0 || recovered > 0) {
+                    String summary = recovered + " pages recovered after retrying, " + failed + " still failing";
+                    ConsoleLogger.info(summary);
+                    statusLabel.setText(statusLabel.getText() + " " + summary
+                            + (failed > 0 ? " (use Retry Failed)." : "."));
+                }
 
             } catch (Exception ex) {
                 if (ex instanceof java.util.concurrent.CancellationException) {
                     statusLabel.setText("Scraping stopped by user.");
                     ConsoleLogger.stop("Scraping cancelled by user");
                 } else {
-                    JsonUtils.saveScannedUrls(scannedUrls);
+                    outcome = "failed";
+                    if (posts.isEmpty() || JsonUtils.toJson(new ArrayList<>(new HashSet<>(posts)))) {
+                        saveScannedUrls();
+                    }
                     JOptionPane.showMessageDialog(ScrapingPanel.this, "Error: " + ex.getMessage(), "Error",
                             JOptionPane.ERROR_MESSAGE);
                     statusLabel.setText("Scraping failed - partial progress saved");
                 }
                 progressBar.setValue(0);
             } finally {
+                if (report != null) {
+                    report.setPagesRequested(totalUrls);
+                    report.setPagesSkipped(crawler.getSkippedUrls());
+                    report.setTopicsFiltered(crawler.getFilteredTopics());
+                    JsonUtils.saveReport(report.finish(outcome), report.getStartedAt());
+                }
+                if (recording != null) {
+                    dumpRecording(recording);
+                }
                 startButton.setEnabled(true);
                 stopButton.setEnabled(false);
                 currentWorker = null;
+                if (crawler.getFailedUrls().isEmpty()) {
+                    refreshRetryButton();
+                } else {
+                    retryButton.setEnabled(true);
+                }
             }
         }
     }
 
+    // Vuelca la grabación JFR fuera del EDT.
+    private void dumpRecording(CrawlRecording recording) {
+        Thread dumpThread = new Thread(() -> {
+            try {
+                recording.stopAndDump();
+            } catch (Exception e) {
+                ConsoleLogger.error("Could not save JFR recording: " + e.getMessage());
+            }
+        }, "jfr-dump");
+        dumpThread.setDaemon(true);
+        dumpThread.start();
+    }
+
     // Determina si una URL es de topic
     private boolean isTopicUrl(String url) {
-        return url.startsWith("https://www.makinamania.net/index.php/topic") &&
-                url.matches("^https://www\\.makinamania\\.net/index\\.php/topic,\\d+(\\.\\d+)?\\.html.*$");
+        return MakinamaniaScraper.isTopicUrl(url);
     }
 
     // Determina si una URL es de board
     private boolean isBoardUrl(String url) {
-        return url.startsWith("https://www.makinamania.net/index.php/board") &&
-                url.matches("^https://www\\.makinamania\\.net/index\\.php/board,\\d+\\.\\d+.*$");
+        return MakinamaniaScraper.isBoardUrl(url);
     }
 }
\ No newline at end of file
@@ -0,0 +1,193 @@
+package makinamania.ui;
+
+import makinamania.CrawlMetrics;
+
+import javax.swing.*;
+import javax.swing.Timer;
+import javax.swing.border.EmptyBorder;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Pestaña "Stats": throughput, percentiles y tasa de errores de cada etapa del scraping.
+public class StatsPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int REFRESH_MS = 1000;
+
+    private final CrawlMetrics metrics;
+    private final StageTableModel stageModel = new StageTableModel();
+    private final CounterTableModel counterModel = new CounterTableModel("Counter");
+    private final CounterTableModel gaugeModel = new CounterTableModel("Gauge");
+    private final JLabel uptimeLabel = new JLabel();
+    private final Map<String, Long> previousCounts = new HashMap<>();
+    private long previousRefreshNanos;
+
+    public StatsPanel(CrawlMetrics metrics) {
+        this.metrics = metrics;
+        initializeUI();
+
+        Timer refreshTimer = new Timer(REFRESH_MS, e -> {
+            if (isShowing()) {
+                refresh();
+            }
+        });
+        refreshTimer.start();
+    }
+
+    private void initializeUI() {
+        setLayout(new BorderLayout(5, 5));
+        setBorder(new EmptyBorder(10, 10, 10, 10));
+
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(uptimeLabel, BorderLayout.WEST);
+        JButton resetButton = new JButton("Reset");
+        resetButton.setToolTipText("Clear all counters and latency histograms");
+        resetButton.addActionListener(e -> {
+            metrics.reset();
+            previousCounts.clear();
+            refresh();
+        });
+        topPanel.add(resetButton, BorderLayout.EAST);
+
+        JTable stageTable = new JTable(stageModel);
+        stageTable.setAutoCreateRowSorter(true);
+        JScrollPane stageScroll = new JScrollPane(stageTable);
+        stageScroll.setBorder(BorderFactory.createTitledBorder("Stages"));
+
+        JTable counterTable = new JTable(counterModel);
+        JScrollPane counterScroll = new JScrollPane(counterTable);
+        counterScroll.setBorder(BorderFactory.createTitledBorder("Counters"));
+
+        // Cola y hilos ocupados de cada etapa del pipeline mientras hay un crawl en marcha.
+        JTable gaugeTable = new JTable(gaugeModel);
+        JScrollPane gaugeScroll = new JScrollPane(gaugeTable);
+        gaugeScroll.setBorder(BorderFactory.createTitledBorder("Pipeline"));
+
+        JSplitPane bottomPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, counterScroll, gaugeScroll);
+        bottomPane.setResizeWeight(0.5);
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, stageScroll, bottomPane);
+        splitPane.setResizeWeight(0.7);
+
+        add(topPanel, BorderLayout.NORTH);
+        add(splitPane, BorderLayout.CENTER);
+    }
+
+    private void refresh() {
+        long now = System.nanoTime();
+        double elapsedSeconds = previousRefreshNanos == 0 ? 0 : (now - previousRefreshNanos) / 1e9;
+        previousRefreshNanos = now;
+
+        List<Object[]> rows = new ArrayList<>();
+        for (CrawlMetrics.StageSnapshot stage : metrics.getStages()) {
+            Long previous = previousCounts.put(stage.getName(), stage.getCount());
+            double rate = elapsedSeconds > 0 && previous != null ? (stage.getCount() - previous) / elapsedSeconds : 0;
+            double meanMs = stage.getCount() == 0 ? 0 : stage.getTotalMicros() / 1000.0 / stage.getCount();
+            rows.add(new Object[] {
+                    stage.getName(),
+                    stage.getCount(),
+                    round(rate),
+                    stage.getErrors(),
+                    round(stage.getErrorRate() * 100),
+                    round(meanMs),
+                    round(stage.getP50Micros() / 1000.0),
+                    round(stage.getP95Micros() / 1000.0),
+                    round(stage.getP99Micros() / 1000.0),
+                    round(stage.getMaxMicros() / 1000.0)
+            });
+        }
+        stageModel.setRows(rows);
+        counterModel.setCounters(metrics.getCounters());
+        gaugeModel.setCounters(metrics.getGauges());
+        uptimeLabel.setText("Collecting for " + metrics.getUptimeSeconds() + " s");
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static class StageTableModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+        private static final String[] COLUMNS = { "Stage", "Count", "Rate/s", "Errors", "Error %",
+                "Mean ms", "p50 ms", "p95 ms", "p99 ms", "Max ms" };
+        private static final Class<?>[] TYPES = { String.class, Long.class, Double.class, Long.class,
+                Double.class, Double.class, Double.class, Double.class, Double.class, Double.class };
+
+        private List<Object[]> rows = new ArrayList<>();
+
+        void setRows(List<Object[]> newRows) {
+            rows = newRows;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return TYPES[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return rows.get(row)[column];
+        }
+    }
+
+    private static class CounterTableModel extends AbstractTableModel {
+        private static final long serialVersionUID = 1L;
+
+        private final String nameColumn;
+        private final List<String> names = new ArrayList<>();
+        private final List<Long> values = new ArrayList<>();
+
+        CounterTableModel(String nameColumn) {
+            this.nameColumn = nameColumn;
+        }
+
+        void setCounters(Map<String, Long> counters) {
+            names.clear();
+            values.clear();
+            counters.forEach((name, value) -> {
+                names.add(name);
+                values.add(value);
+            });
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return names.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 2;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return column == 0 ? nameColumn : "Value";
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return column == 0 ? names.get(row) : values.get(row);
+        }
+    }
+}